@@ -0,0 +1,121 @@
+package it.magiavventure.jwt.benchmark;
+
+import it.magiavventure.common.configuration.CommonProperties;
+import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties;
+import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties.ErrorMessage;
+import it.magiavventure.common.error.handler.DefaultExceptionHandler;
+import it.magiavventure.common.mapper.HttpErrorMapper;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
+import it.magiavventure.jwt.service.UserJwtService;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.model.Category;
+import it.magiavventure.mongo.model.User;
+import it.magiavventure.mongo.repository.UserRepository;
+import org.mapstruct.factory.Mappers;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Shared setup of the benchmarks: properties, users and an in-memory {@link UserRepository} stand-in.
+ */
+final class BenchmarkFixtures {
+
+    static final String HEADER = "mg-a-token";
+    static final String SECRET = "cXVlc3RhIMOoIGxhIGZha2Ugc2VjcmV0IHBlciBnZW5lcmFyZSBpIHRva2" +
+            "VuIG5laSB0ZXN0IGRpIG1hZ2lhdnZlbnR1cmUsIGZhdGUgY29tZSB2b2xldGU=";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtProperties jwtProperties(long validity, boolean tokenCache) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setHeader(HEADER);
+        jwtProperties.setValidity(validity);
+        jwtProperties.getTokenCache().setEnabled(tokenCache);
+        List<EndpointProperties> excludedEndpoints = new ArrayList<>();
+        IntStream.range(0, 40).forEach(i -> {
+            EndpointProperties endpointProperties = new EndpointProperties();
+            endpointProperties.setMethod(i % 2 == 0 ? "GET" : "POST");
+            endpointProperties.setPath(i % 3 == 0 ? "/public/resource" + i + "/**" : "/public/resource" + i);
+            excludedEndpoints.add(endpointProperties);
+        });
+        jwtProperties.setExcludedEndpoints(excludedEndpoints);
+        return jwtProperties;
+    }
+
+    static User user(int claims) {
+        return User
+                .builder()
+                .id(UUID.randomUUID())
+                .name("benchmark-user")
+                .preferredCategories(IntStream.range(0, claims)
+                        .mapToObj(i -> Category
+                                .builder()
+                                .id(UUID.randomUUID())
+                                .name("category-" + i)
+                                .background("background-" + i)
+                                .build())
+                        .toList())
+                .authorities(List.of("user"))
+                .build();
+    }
+
+    static EUser eUser(User user) {
+        return EUser
+                .builder()
+                .id(user.getId())
+                .name(user.getName())
+                .preferredCategories(user.getPreferredCategories())
+                .authorities(user.getAuthorities())
+                .build();
+    }
+
+    static UserJwtService userJwtService(Map<UUID, EUser> users) {
+        return new UserJwtService(userRepository(users));
+    }
+
+    static Map<UUID, EUser> users() {
+        return new ConcurrentHashMap<>();
+    }
+
+    static UserRepository userRepository(Map<UUID, EUser> users) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(users.get((UUID) args[0]));
+                    case "findAllById" -> {
+                        List<EUser> found = new ArrayList<>();
+                        ((Iterable<?>) args[0]).forEach(id -> Optional.ofNullable(users.get((UUID) id))
+                                .ifPresent(found::add));
+                        yield found;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static DefaultExceptionHandler defaultExceptionHandler() {
+        CommonProperties commonProperties = new CommonProperties();
+        ErrorsProperties errorsProperties = new ErrorsProperties();
+        errorsProperties.setJwtErrorsMessages(Map.of("not-authenticated", ErrorMessage
+                .builder()
+                .code("not-authenticated")
+                .description("non autenticato")
+                .message("non autenticato")
+                .status(401)
+                .build()));
+        commonProperties.setErrors(errorsProperties);
+        return new DefaultExceptionHandler(commonProperties, Mappers.getMapper(HttpErrorMapper.class));
+    }
+}
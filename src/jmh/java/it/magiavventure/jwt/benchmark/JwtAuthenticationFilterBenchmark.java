@@ -0,0 +1,93 @@
+package it.magiavventure.jwt.benchmark;
+
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.filter.JwtAuthenticationFilter;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.model.User;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"valid", "expired", "garbage", "excluded"})
+    private String scenario;
+
+    @Param({"true", "false"})
+    private boolean tokenCache;
+
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    private String token;
+    private String servletPath;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        User user = BenchmarkFixtures.user(5);
+        Map<UUID, EUser> users = BenchmarkFixtures.users();
+        users.put(user.getId(), BenchmarkFixtures.eUser(user));
+        JwtProperties jwtProperties = BenchmarkFixtures.jwtProperties(30L, tokenCache);
+        JwtService jwtService = new JwtService(jwtProperties, BenchmarkFixtures.userJwtService(users));
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtService, jwtProperties,
+                BenchmarkFixtures.defaultExceptionHandler());
+        token = switch (scenario) {
+            case "expired" -> new JwtService(BenchmarkFixtures.jwtProperties(-1L, false),
+                    BenchmarkFixtures.userJwtService(users)).buildJwt(user);
+            case "garbage" -> "eyJhbGciOiJIUzI1NiJ9.garbage.garbage";
+            default -> jwtService.buildJwt(user);
+        };
+        servletPath = "excluded".equals(scenario) ? "/public/resource38" : "/secured/resource";
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilter() throws ServletException, IOException {
+        return filter();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MockHttpServletResponse doFilterConcurrent() throws ServletException, IOException {
+        return filter();
+    }
+
+    private MockHttpServletResponse filter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", servletPath);
+        request.setServletPath(servletPath);
+        request.addHeader(BenchmarkFixtures.HEADER, token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            jwtAuthenticationFilter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
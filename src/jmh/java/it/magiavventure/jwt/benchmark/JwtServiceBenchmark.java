@@ -0,0 +1,170 @@
+package it.magiavventure.jwt.benchmark;
+
+import io.jsonwebtoken.Claims;
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuance, parsing and user extraction of {@link JwtService}. Each operation has its own state so only the
+ * parameter it depends on is varied: the number of claims for issuance, the token validity for parsing and the
+ * share of verified token cache hits for extraction.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+
+    private static final int SLOTS = 100;
+
+    @State(Scope.Benchmark)
+    public static class Issuance {
+
+        @Param({"1", "10", "50"})
+        private int claims;
+
+        private User user;
+        private JwtService jwtService;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            user = BenchmarkFixtures.user(claims);
+            jwtService = new JwtService(BenchmarkFixtures.jwtProperties(30L, false), null);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            jwtService.destroy();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Parsing {
+
+        @Param({"valid", "expired"})
+        private String validity;
+
+        private String token;
+        private JwtService jwtService;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            long minutes = "valid".equals(validity) ? 30L : -1L;
+            jwtService = new JwtService(BenchmarkFixtures.jwtProperties(minutes, false), null);
+            token = jwtService.buildJwt(BenchmarkFixtures.user(10));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            jwtService.destroy();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Extraction {
+
+        @Param({"0", "50", "90", "100"})
+        private int cacheHitPercent;
+
+        private String token;
+        private JwtService cachedJwtService;
+        private JwtService uncachedJwtService;
+        private JwtService[] extractionPlan;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            User user = BenchmarkFixtures.user(10);
+            Map<UUID, EUser> users = BenchmarkFixtures.users();
+            users.put(user.getId(), BenchmarkFixtures.eUser(user));
+            cachedJwtService = new JwtService(BenchmarkFixtures.jwtProperties(30L, true),
+                    BenchmarkFixtures.userJwtService(users));
+            uncachedJwtService = new JwtService(BenchmarkFixtures.jwtProperties(30L, false),
+                    BenchmarkFixtures.userJwtService(users));
+            token = cachedJwtService.buildJwt(user);
+            extractionPlan = new JwtService[SLOTS];
+            for (int i = 0; i < SLOTS; i++) {
+                extractionPlan[i] = i < cacheHitPercent ? cachedJwtService : uncachedJwtService;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            cachedJwtService.destroy();
+            uncachedJwtService.destroy();
+        }
+    }
+
+    /**
+     * Position of a benchmark thread in the extraction plan, kept per thread so the threads do not contend on it.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int index;
+
+        int next() {
+            int current = index;
+            index = current + 1 == SLOTS ? 0 : current + 1;
+            return current;
+        }
+    }
+
+    @Benchmark
+    public String buildJwt(Issuance issuance) {
+        return issuance.jwtService.buildJwt(issuance.user);
+    }
+
+    @Benchmark
+    public void parseJwtClaims(Parsing parsing, Blackhole blackhole) {
+        try {
+            Claims claims = parsing.jwtService.parseJwtClaims(parsing.token);
+            blackhole.consume(claims);
+        } catch (MagiavventureException exception) {
+            blackhole.consume(exception);
+        }
+    }
+
+    @Benchmark
+    public void extractUser(Extraction extraction, Cursor cursor, Blackhole blackhole) {
+        extract(extraction, cursor, blackhole);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void extractUserConcurrent(Extraction extraction, Cursor cursor, Blackhole blackhole) {
+        extract(extraction, cursor, blackhole);
+    }
+
+    private void extract(Extraction extraction, Cursor cursor, Blackhole blackhole) {
+        JwtService jwtService = extraction.extractionPlan[cursor.next()];
+        try {
+            blackhole.consume(jwtService.extractUser(extraction.token));
+        } catch (MagiavventureException exception) {
+            blackhole.consume(exception);
+        }
+    }
+}
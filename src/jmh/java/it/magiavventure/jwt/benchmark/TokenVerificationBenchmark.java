@@ -0,0 +1,82 @@
+package it.magiavventure.jwt.benchmark;
+
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.mongo.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the jjwt parser with the fast verifier on uncached tokens, with the full and the compact claim profile.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TokenVerificationBenchmark {
+
+    @Param({"1", "10"})
+    private int claims;
+
+    @Param({"false", "true"})
+    private boolean compactClaims;
+
+    private String token;
+    private JwtService jjwtService;
+    private JwtService fastService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        User user = BenchmarkFixtures.user(claims);
+        jjwtService = new JwtService(jwtProperties(false), null);
+        fastService = new JwtService(jwtProperties(true), null);
+        token = jjwtService.buildJwt(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jjwtService.destroy();
+        fastService.destroy();
+    }
+
+    @Benchmark
+    public User jjwtParser() {
+        return jjwtService.resolveUser(token);
+    }
+
+    @Benchmark
+    public User fastVerifier() {
+        return fastService.resolveUser(token);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public User fastVerifierConcurrent() {
+        return fastService.resolveUser(token);
+    }
+
+    private JwtProperties jwtProperties(boolean fastVerifier) {
+        JwtProperties jwtProperties = BenchmarkFixtures.jwtProperties(30L, false);
+        jwtProperties.setFastVerifier(fastVerifier);
+        jwtProperties.getClaimProfile().setEnabled(compactClaims);
+        return jwtProperties;
+    }
+}
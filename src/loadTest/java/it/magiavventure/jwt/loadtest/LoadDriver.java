@@ -0,0 +1,95 @@
+package it.magiavventure.jwt.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator: every client sends its requests back to back on its own thread and records the
+ * latency of each one. All the clients warm up first, then start the measured run together.
+ */
+class LoadDriver {
+
+    private final HttpClient httpClient;
+    private final int clients;
+    private final int requestsPerClient;
+    private final int warmupPerClient;
+
+    LoadDriver(int clients, int requestsPerClient, int warmupPerClient) {
+        this.clients = clients;
+        this.requestsPerClient = requestsPerClient;
+        this.warmupPerClient = warmupPerClient;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    LoadReport run(LoadScenario scenario) throws Exception {
+        long[] latencies = new long[clients * requestsPerClient];
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder unexpected = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            runClients(executor, client -> {
+                for (int i = 0; i < warmupPerClient; i++) {
+                    send(scenario);
+                }
+            });
+            long startedAt = System.nanoTime();
+            runClients(executor, client -> {
+                int offset = client * requestsPerClient;
+                for (int i = 0; i < requestsPerClient; i++) {
+                    long begin = System.nanoTime();
+                    int status = send(scenario);
+                    latencies[offset + i] = System.nanoTime() - begin;
+                    statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                    if (!scenario.expectedStatus().test(status)) unexpected.increment();
+                }
+            });
+            long elapsed = System.nanoTime() - startedAt;
+            Map<Integer, Long> statusCounts = new TreeMap<>();
+            statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+            return LoadReport.of(scenario.name(), clients, latencies, unexpected.sum(), elapsed, statusCounts);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runClients(ExecutorService executor, Client client) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(clients);
+        for (int index = 0; index < clients; index++) {
+            int clientIndex = index;
+            futures.add(executor.submit(() -> {
+                start.await();
+                client.run(clientIndex);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private int send(LoadScenario scenario) throws IOException, InterruptedException {
+        return httpClient.send(scenario.request(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @FunctionalInterface
+    private interface Client {
+        void run(int client) throws IOException, InterruptedException;
+    }
+}
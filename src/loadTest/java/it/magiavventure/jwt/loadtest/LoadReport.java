@@ -0,0 +1,53 @@
+package it.magiavventure.jwt.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link LoadScenario} run: throughput, latency percentiles and status codes.
+ */
+record LoadReport(String scenario, int clients, long requests, long unexpected, double elapsedSeconds,
+                  long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos, Map<Integer, Long> statuses) {
+
+    static final String HEADER = String.format(Locale.ROOT, "%-14s %8s %10s %10s %12s %10s %10s %10s %10s  %s",
+            "scenario", "clients", "requests", "unexpected", "req/s", "p50 us", "p99 us", "p999 us", "max us",
+            "statuses");
+
+    static LoadReport of(String scenario, int clients, long[] latencies, long unexpected, long elapsedNanos,
+                         Map<Integer, Long> statuses) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return new LoadReport(scenario, clients, sorted.length, unexpected, elapsedNanos / 1e9,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1], statuses);
+    }
+
+    double throughput() {
+        return elapsedSeconds == 0 ? 0 : requests / elapsedSeconds;
+    }
+
+    String format() {
+        return String.format(Locale.ROOT, "%-14s %8d %10d %10d %12.1f %10d %10d %10d %10d  %s",
+                scenario, clients, requests, unexpected, throughput(), micros(p50Nanos), micros(p99Nanos),
+                micros(p999Nanos), micros(maxNanos), statuses);
+    }
+
+    String toJson() {
+        return String.format(Locale.ROOT, "{\"scenario\":\"%s\",\"clients\":%d,\"requests\":%d,\"unexpected\":%d,"
+                        + "\"throughput\":%.1f,\"p50Us\":%d,\"p99Us\":%d,\"p999Us\":%d,\"maxUs\":%d}",
+                scenario, clients, requests, unexpected, throughput(), micros(p50Nanos), micros(p99Nanos),
+                micros(p999Nanos), micros(maxNanos));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,10 @@
+package it.magiavventure.jwt.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.function.IntPredicate;
+
+/**
+ * A request shape driven by the load test together with the statuses it is expected to produce.
+ */
+record LoadScenario(String name, HttpRequest request, IntPredicate expectedStatus) {
+}
@@ -0,0 +1,131 @@
+package it.magiavventure.jwt.loadtest;
+
+import it.magiavventure.common.configuration.CommonProperties;
+import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties;
+import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties.ErrorMessage;
+import it.magiavventure.common.error.handler.DefaultExceptionHandler;
+import it.magiavventure.common.mapper.HttpErrorMapper;
+import it.magiavventure.jwt.config.AppContext;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.SecurityConfig;
+import it.magiavventure.jwt.config.SecurityRulesConfig;
+import it.magiavventure.jwt.revocation.TokenRevocationStore;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.jwt.service.SecurityVersionRegistry;
+import it.magiavventure.jwt.service.UserJwtService;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.repository.UserRepository;
+import org.mapstruct.factory.Mappers;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.error.ErrorMvcAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal servlet application running the real security filter chain of {@link SecurityConfig} on top of an
+ * in-memory {@link UserRepository} stand-in, so no database is needed.
+ */
+@SpringBootConfiguration
+@EnableConfigurationProperties(JwtProperties.class)
+@ImportAutoConfiguration({
+        PropertyPlaceholderAutoConfiguration.class,
+        ServletWebServerFactoryAutoConfiguration.class,
+        DispatcherServletAutoConfiguration.class,
+        WebMvcAutoConfiguration.class,
+        HttpMessageConvertersAutoConfiguration.class,
+        JacksonAutoConfiguration.class,
+        ErrorMvcAutoConfiguration.class,
+        SecurityAutoConfiguration.class,
+        SecurityFilterAutoConfiguration.class,
+        SecurityRulesConfig.class
+})
+@Import({SecurityConfig.class, JwtService.class, UserJwtService.class, SecurityVersionRegistry.class,
+        TokenRevocationStore.class, AppContext.class, LoadTestApplication.LoadTestController.class})
+public class LoadTestApplication {
+
+    @Bean
+    public Map<UUID, EUser> users() {
+        return new ConcurrentHashMap<>();
+    }
+
+    @Bean
+    public UserRepository userRepository(Map<UUID, EUser> users) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(users.get((UUID) args[0]));
+                    case "findAllById" -> {
+                        List<EUser> found = new ArrayList<>();
+                        ((Iterable<?>) args[0]).forEach(id -> Optional.ofNullable(users.get((UUID) id))
+                                .ifPresent(found::add));
+                        yield found;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Bean
+    public DefaultExceptionHandler defaultExceptionHandler() {
+        CommonProperties commonProperties = new CommonProperties();
+        ErrorsProperties errorsProperties = new ErrorsProperties();
+        errorsProperties.setJwtErrorsMessages(Map.of(
+                "not-authenticated", errorMessage("not-authenticated", 401),
+                "access-denied", errorMessage("access-denied", 403)));
+        commonProperties.setErrors(errorsProperties);
+        return new DefaultExceptionHandler(commonProperties, Mappers.getMapper(HttpErrorMapper.class));
+    }
+
+    private static ErrorMessage errorMessage(String code, int status) {
+        return ErrorMessage
+                .builder()
+                .code(code)
+                .description(code)
+                .message(code)
+                .status(status)
+                .build();
+    }
+
+    @RestController
+    static class LoadTestController {
+
+        @GetMapping("/api/resource")
+        public String resource() {
+            return "resource";
+        }
+
+        @DeleteMapping("/api/admin/{id}")
+        public String delete(@PathVariable String id) {
+            return id;
+        }
+
+        @GetMapping("/public/ping")
+        public String ping() {
+            return "pong";
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package it.magiavventure.jwt.loadtest;
+
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.jwt.service.UserJwtService;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Drives the real security filter chain on an embedded Tomcat with concurrent clients. Run with
+ * {@code ./gradlew loadTest}, sized with the {@code loadTest.clients}, {@code loadTest.requests} and
+ * {@code loadTest.warmup} system properties; the reports are also written to {@code build/reports/load-test}.
+ */
+@ActiveProfiles("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(classes = LoadTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Security filter chain load tests")
+class SecurityFilterChainLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityFilterChainLoadTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("loadTest.clients", 16);
+    private static final int REQUESTS = Integer.getInteger("loadTest.requests", 2000);
+    private static final int WARMUP = Integer.getInteger("loadTest.warmup", 200);
+
+    private final List<LoadReport> reports = new ArrayList<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Autowired
+    private UserJwtService userJwtService;
+
+    @Autowired
+    private Map<UUID, EUser> users;
+
+    private LoadDriver loadDriver;
+    private String validToken;
+    private String expiredToken;
+
+    @BeforeAll
+    void beforeAll() {
+        User user = User
+                .builder()
+                .id(UUID.randomUUID())
+                .name("load-test-user")
+                .authorities(List.of("user"))
+                .build();
+        users.put(user.getId(), EUser
+                .builder()
+                .id(user.getId())
+                .name(user.getName())
+                .authorities(user.getAuthorities())
+                .build());
+        validToken = jwtService.buildJwt(user);
+        JwtProperties expiredProperties = new JwtProperties();
+        expiredProperties.setSecret(jwtProperties.getSecret());
+        expiredProperties.setHeader(jwtProperties.getHeader());
+        expiredProperties.setValidity(-1L);
+        JwtService expiredJwtService = new JwtService(expiredProperties, userJwtService);
+        expiredToken = expiredJwtService.buildJwt(user);
+        expiredJwtService.destroy();
+        loadDriver = new LoadDriver(CLIENTS, REQUESTS, WARMUP);
+    }
+
+    @AfterAll
+    void afterAll() throws IOException {
+        log.info("{}", LoadReport.HEADER);
+        reports.forEach(report -> log.info("{}", report.format()));
+        Path directory = Path.of("build", "reports", "load-test");
+        Files.createDirectories(directory);
+        Files.write(directory.resolve("results.json"), List.of(reports.stream()
+                .map(LoadReport::toJson)
+                .toList()
+                .toString()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"valid", "expired", "garbage", "excluded", "role-denied"})
+    @DisplayName("Given concurrent clients the scenario produces only expected statuses")
+    void givenConcurrentClients_scenario_produceExpectedStatuses(String scenario) throws Exception {
+        LoadReport report = loadDriver.run(scenario(scenario));
+        reports.add(report);
+
+        Assertions.assertEquals(0, report.unexpected(), report::format);
+    }
+
+    private LoadScenario scenario(String name) {
+        return switch (name) {
+            case "valid" -> new LoadScenario(name, get("/api/resource", validToken), status -> status == 200);
+            case "expired" -> new LoadScenario(name, get("/api/resource", expiredToken), status -> status == 401);
+            case "garbage" -> new LoadScenario(name, get("/api/resource", "eyJhbGciOiJIUzI1NiJ9.garbage.garbage"),
+                    status -> status == 401);
+            case "excluded" -> new LoadScenario(name, get("/public/ping", null), status -> status == 200);
+            case "role-denied" -> new LoadScenario(name, request("/api/admin/1", validToken).DELETE().build(),
+                    status -> status == 403);
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (token != null) {
+            builder.header(jwtProperties.getHeader(), token);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,125 @@
+package it.magiavventure.jwt.audit;
+
+import it.magiavventure.jwt.config.JwtProperties.AuditProperties;
+import it.magiavventure.jwt.metrics.AuditLogStats;
+import it.magiavventure.jwt.metrics.JwtMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AuditLog} publishing the events to a bounded ring buffer, drained in batches to the {@link AuditSink} by a
+ * background thread. When the buffer is full the event is dropped and counted, the request thread never waits.
+ */
+@Slf4j
+public class AsyncAuditLog implements AuditLog, AuditLogStats, DisposableBean {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10L;
+
+    private final AuditRingBuffer<AuditEvent> ringBuffer;
+    private final AuditSink auditSink;
+    private final int batchSize;
+    private final ScheduledExecutorService drainExecutor;
+    private final List<AuditEvent> batch;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public AsyncAuditLog(AuditProperties auditProperties, AuditSink auditSink,
+                         ObjectProvider<JwtMetrics> jwtMetricsProvider) {
+        AuditProperties properties = Optional.ofNullable(auditProperties).orElseGet(AuditProperties::new);
+        this.ringBuffer = new AuditRingBuffer<>(Optional.ofNullable(properties.getCapacity()).orElse(8192));
+        this.auditSink = auditSink;
+        this.batchSize = Math.max(1, Optional.ofNullable(properties.getBatchSize()).orElse(512));
+        this.batch = new ArrayList<>(batchSize);
+        long interval = Optional.ofNullable(properties.getFlushInterval())
+                .map(Duration::toMillis)
+                .filter(millis -> millis > 0)
+                .orElse(200L);
+        this.drainExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-audit-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.drainExecutor.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+        JwtMetrics.from(jwtMetricsProvider).bindAuditLog(this);
+    }
+
+    @Override
+    public void publish(UUID userId, String outcome, String method, String path) {
+        if (ringBuffer.offer(new AuditEvent(System.currentTimeMillis(), userId, outcome, method, path))) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public long getPublished() {
+        return published.sum();
+    }
+
+    @Override
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getWritten() {
+        return written.sum();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public int getPending() {
+        return ringBuffer.size();
+    }
+
+    synchronized void drain() {
+        while (ringBuffer.drainTo(batch, batchSize) > 0) {
+            try {
+                auditSink.write(batch);
+                written.add(batch.size());
+            } catch (IOException | RuntimeException exception) {
+                failed.add(batch.size());
+                log.warn("Unable to write {} audit events", batch.size(), exception);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        drainExecutor.shutdown();
+        try {
+            if (!drainExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("The audit drainer did not complete within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        try {
+            auditSink.close();
+        } catch (IOException exception) {
+            log.warn("Unable to close the audit sink", exception);
+        }
+    }
+}
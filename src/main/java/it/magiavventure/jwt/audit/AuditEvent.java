@@ -0,0 +1,51 @@
+package it.magiavventure.jwt.audit;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A single authentication outcome: the user id is null when the request was not authenticated.
+ */
+public record AuditEvent(long timestamp, UUID userId, String outcome, String method, String path) {
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder(128)
+                .append("{\"timestamp\":\"").append(Instant.ofEpochMilli(timestamp)).append('"')
+                .append(",\"outcome\":");
+        appendString(json, outcome);
+        json.append(",\"userId\":");
+        appendString(json, Objects.isNull(userId) ? null : userId.toString());
+        json.append(",\"method\":");
+        appendString(json, method);
+        json.append(",\"path\":");
+        appendString(json, path);
+        return json.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (Objects.isNull(value)) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
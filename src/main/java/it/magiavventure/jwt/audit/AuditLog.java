@@ -0,0 +1,25 @@
+package it.magiavventure.jwt.audit;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Audit trail of the authentication outcomes. Publishing must never block the request thread, the default
+ * methods do nothing so the filters pay no cost when the audit is disabled.
+ */
+public interface AuditLog {
+
+    AuditLog NOOP = new AuditLog() {
+    };
+
+    static AuditLog from(ObjectProvider<AuditLog> auditLogProvider) {
+        return Optional.ofNullable(auditLogProvider)
+                .map(provider -> provider.getIfAvailable(() -> NOOP))
+                .orElse(NOOP);
+    }
+
+    default void publish(UUID userId, String outcome, String method, String path) {
+    }
+}
@@ -0,0 +1,15 @@
+package it.magiavventure.jwt.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the audit events, called by the drainer thread only, with batches in publishing order.
+ */
+public interface AuditSink {
+
+    void write(List<AuditEvent> events) throws IOException;
+
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,108 @@
+package it.magiavventure.jwt.audit;
+
+import it.magiavventure.jwt.config.JwtProperties.AuditProperties;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Default {@link AuditSink}: one json event per line, rolled to {@code file.1 ... file.N} when the file would
+ * exceed the max size, the oldest file is deleted.
+ */
+public class RollingFileAuditSink implements AuditSink {
+
+    private final Path file;
+    private final long maxFileSize;
+    private final int maxHistory;
+    private OutputStream outputStream;
+    private long size;
+
+    public RollingFileAuditSink(AuditProperties auditProperties) {
+        AuditProperties properties = Optional.ofNullable(auditProperties).orElseGet(AuditProperties::new);
+        this.file = Path.of(properties.getFile());
+        this.maxFileSize = properties.getMaxFileSize().toBytes();
+        this.maxHistory = Math.max(0, properties.getMaxHistory());
+    }
+
+    @Override
+    public synchronized void write(List<AuditEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder(events.size() * 128);
+        events.forEach(event -> lines.append(event.toJson()).append('\n'));
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            OutputStream stream = open();
+            if (size > 0 && size + bytes.length > maxFileSize) {
+                roll();
+                stream = open();
+            }
+            stream.write(bytes);
+            stream.flush();
+            size += bytes.length;
+        } catch (IOException exception) {
+            discard();
+            throw exception;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (Objects.nonNull(outputStream)) {
+            outputStream.close();
+            outputStream = null;
+        }
+    }
+
+    /**
+     * Drops a stream left unusable by a failed write, e.g. a channel closed by an interrupt, so the next write
+     * reopens the file.
+     */
+    private void discard() {
+        try {
+            close();
+        } catch (IOException exception) {
+            outputStream = null;
+        }
+    }
+
+    private OutputStream open() throws IOException {
+        if (Objects.isNull(outputStream)) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (Objects.nonNull(parent)) {
+                Files.createDirectories(parent);
+            }
+            outputStream = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND));
+            size = Files.size(file);
+        }
+        return outputStream;
+    }
+
+    private void roll() throws IOException {
+        close();
+        if (maxHistory == 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Files.deleteIfExists(rolled(maxHistory));
+        for (int index = maxHistory - 1; index >= 1; index--) {
+            Path source = rolled(index);
+            if (Files.exists(source)) {
+                Files.move(source, rolled(index + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
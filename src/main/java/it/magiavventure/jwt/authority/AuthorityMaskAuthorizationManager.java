@@ -0,0 +1,42 @@
+package it.magiavventure.jwt.authority;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Grants the request when the authenticated user has any of the configured authorities, with a single bitwise
+ * AND against the interned {@link AuthoritySet} of a {@link JwtAuthenticationToken}.
+ */
+public class AuthorityMaskAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final AuthorityRequirement requirement;
+
+    public AuthorityMaskAuthorizationManager(String... authorities) {
+        this.requirement = AuthorityRegistry.requirement(authorities);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return decide(authentication.get());
+    }
+
+    public AuthorizationDecision decide(Authentication authentication) {
+        if (Objects.isNull(authentication) || !authentication.isAuthenticated()) return DENIED;
+        AuthoritySet authoritySet = authentication instanceof JwtAuthenticationToken jwtAuthenticationToken
+                ? jwtAuthenticationToken.getAuthoritySet()
+                : AuthorityRegistry.intern(authentication.getAuthorities()
+                        .stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .toList());
+        return authoritySet.matches(requirement) ? GRANTED : DENIED;
+    }
+}
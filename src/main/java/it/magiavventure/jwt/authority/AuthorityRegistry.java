@@ -0,0 +1,66 @@
+package it.magiavventure.jwt.authority;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the authority vocabulary: every distinct authority gets a bit, every distinct list of authorities
+ * is interned into a shared immutable {@link AuthoritySet}. The vocabulary is expected to be small, authorities
+ * beyond the first {@value #MAX_BITS} are still matched by name. Null authorities coming from user data are ignored.
+ */
+public final class AuthorityRegistry {
+
+    static final int MAX_BITS = Long.SIZE;
+    private static final int MAX_INTERNED_SETS = 4096;
+    private static final Map<String, Integer> BITS = new ConcurrentHashMap<>();
+    private static final Map<List<String>, AuthoritySet> INTERNED = new ConcurrentHashMap<>();
+
+    private AuthorityRegistry() {
+    }
+
+    public static AuthoritySet intern(Collection<String> authorities) {
+        if (Objects.isNull(authorities) || authorities.isEmpty()) return AuthoritySet.EMPTY;
+        if (authorities instanceof List<String> list) {
+            AuthoritySet interned = INTERNED.get(list);
+            if (Objects.nonNull(interned)) return interned;
+        }
+        List<String> key = authorities.stream().filter(Objects::nonNull).toList();
+        if (key.isEmpty()) return AuthoritySet.EMPTY;
+        AuthoritySet authoritySet = build(key);
+        if (INTERNED.size() >= MAX_INTERNED_SETS) return authoritySet;
+        return Optional.ofNullable(INTERNED.putIfAbsent(key, authoritySet)).orElse(authoritySet);
+    }
+
+    public static AuthorityRequirement requirement(String... authorities) {
+        AuthoritySet authoritySet = build(List.of(Optional.ofNullable(authorities).orElse(new String[0])));
+        return new AuthorityRequirement(authoritySet.getMask(), authoritySet.getOverflow());
+    }
+
+    private static AuthoritySet build(List<String> authorities) {
+        long mask = 0L;
+        Set<String> overflow = new HashSet<>();
+        for (String authority : authorities) {
+            int bit = bitOf(authority);
+            if (bit < MAX_BITS) {
+                mask |= 1L << bit;
+            } else {
+                overflow.add(authority);
+            }
+        }
+        return new AuthoritySet(authorities, mask, Set.copyOf(overflow));
+    }
+
+    private static int bitOf(String authority) {
+        Integer bit = BITS.get(authority);
+        if (Objects.nonNull(bit)) return bit;
+        synchronized (BITS) {
+            return BITS.computeIfAbsent(authority, key -> BITS.size());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package it.magiavventure.jwt.authority;
+
+import java.util.Set;
+
+/**
+ * Any-of authority requirement compiled by {@link AuthorityRegistry#requirement(String...)}.
+ */
+public record AuthorityRequirement(long mask, Set<String> overflow) {
+}
@@ -0,0 +1,53 @@
+package it.magiavventure.jwt.authority;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable, interned set of authorities with its bitmask and the matching granted authorities,
+ * shared by all the users having the same authorities.
+ */
+public final class AuthoritySet {
+
+    static final AuthoritySet EMPTY = new AuthoritySet(List.of(), 0L, Set.of());
+
+    private final List<String> authorities;
+    private final long mask;
+    private final Set<String> overflow;
+    private final List<GrantedAuthority> grantedAuthorities;
+
+    AuthoritySet(List<String> authorities, long mask, Set<String> overflow) {
+        this.authorities = authorities;
+        this.mask = mask;
+        this.overflow = overflow;
+        this.grantedAuthorities = authorities
+                .stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    public boolean matches(AuthorityRequirement requirement) {
+        if ((mask & requirement.mask()) != 0L) return true;
+        if (overflow.isEmpty() || requirement.overflow().isEmpty()) return false;
+        return requirement.overflow().stream().anyMatch(overflow::contains);
+    }
+
+    public List<String> getAuthorities() {
+        return authorities;
+    }
+
+    public List<GrantedAuthority> getGrantedAuthorities() {
+        return grantedAuthorities;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    Set<String> getOverflow() {
+        return overflow;
+    }
+}
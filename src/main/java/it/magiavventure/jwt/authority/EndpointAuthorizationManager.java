@@ -0,0 +1,192 @@
+package it.magiavventure.jwt.authority;
+
+import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
+import it.magiavventure.jwt.matcher.EndpointIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Decision table compiled from the configured endpoints: the rule of a request (roles, authenticated or permit
+ * all) is found with a single {@link EndpointIndex} lookup on method and path, requests without a rule require
+ * authentication. Rules without a path are rejected. At startup rules that can never match because an earlier rule
+ * covers them are reported, and rejected when the validation is strict, as are overlapping rules with different
+ * decisions; this pairwise check is skipped when the rules are recompiled at runtime.
+ */
+@Slf4j
+public class EndpointAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    private static final AuthenticationTrustResolver TRUST_RESOLVER = new AuthenticationTrustResolverImpl();
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final String MATCH_ALL = "/**";
+
+    static {
+        PATH_MATCHER.setTrimTokens(false);
+    }
+
+    private final EndpointIndex<Rule> rules;
+
+    public EndpointAuthorizationManager(List<EndpointProperties> endpoints, boolean strict) {
+        this(endpoints, strict, true);
+    }
+
+    public EndpointAuthorizationManager(List<EndpointProperties> endpoints, boolean strict, boolean checkOverlaps) {
+        List<EndpointProperties> configured = Optional.ofNullable(endpoints).orElse(new ArrayList<>());
+        validatePaths(configured);
+        if (checkOverlaps) {
+            validate(configured, strict);
+        }
+        EndpointIndex.Builder<Rule> builder = EndpointIndex.builder();
+        configured.forEach(endpoint -> {
+            log.info("Adding endpoint rule for {} '{}' - authenticated: {} - roles: {}",
+                    Optional.ofNullable(endpoint.getMethod()).orElse("any method"), endpoint.getPath(),
+                    endpoint.getAuthenticated(), endpoint.getRoles());
+            builder.add(endpoint.getMethod(), endpoint.getPath(), Rule.of(endpoint));
+        });
+        this.rules = builder.build();
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Rule rule = rules.find(context.getRequest());
+        return decide(rule, authentication);
+    }
+
+    public AuthorizationDecision decide(String method, String path, Supplier<Authentication> authentication) {
+        return decide(rules.find(method, path), authentication);
+    }
+
+    private AuthorizationDecision decide(Rule rule, Supplier<Authentication> authentication) {
+        if (Objects.nonNull(rule) && rule.permitAll()) return GRANTED;
+        Authentication current = authentication.get();
+        if (Objects.isNull(current) || !current.isAuthenticated() || TRUST_RESOLVER.isAnonymous(current)) {
+            return DENIED;
+        }
+        if (Objects.isNull(rule) || Objects.isNull(rule.authorizationManager())) return GRANTED;
+        return rule.authorizationManager().decide(current);
+    }
+
+    private static void validatePaths(List<EndpointProperties> endpoints) {
+        for (int index = 0; index < endpoints.size(); index++) {
+            EndpointProperties endpoint = endpoints.get(index);
+            if (Objects.isNull(endpoint) || !StringUtils.hasText(endpoint.getPath())) {
+                throw new IllegalStateException(String.format("Invalid endpoints configuration: endpoint %d%s has"
+                        + " no path", index, Optional.ofNullable(endpoint)
+                        .map(EndpointProperties::getMethod)
+                        .map(method -> " (" + normalize(method) + ")")
+                        .orElse("")));
+            }
+        }
+    }
+
+    private static void validate(List<EndpointProperties> endpoints, boolean strict) {
+        List<String> problems = new ArrayList<>();
+        for (int later = 0; later < endpoints.size(); later++) {
+            EndpointProperties laterEndpoint = endpoints.get(later);
+            for (int earlier = 0; earlier < later; earlier++) {
+                EndpointProperties earlierEndpoint = endpoints.get(earlier);
+                if (!sameMethodScope(earlierEndpoint.getMethod(), laterEndpoint.getMethod())) continue;
+                if (coversPath(earlierEndpoint.getPath(), laterEndpoint.getPath())
+                        && coversMethod(earlierEndpoint.getMethod(), laterEndpoint.getMethod())) {
+                    problems.add(String.format("endpoint %s is shadowed by endpoint %s", describe(laterEndpoint),
+                            describe(earlierEndpoint)));
+                    break;
+                }
+                if (!Rule.of(earlierEndpoint).equals(Rule.of(laterEndpoint))
+                        && overlaps(earlierEndpoint.getPath(), laterEndpoint.getPath())) {
+                    problems.add(String.format("endpoint %s overlaps endpoint %s with a different rule, the first"
+                            + " one wins", describe(laterEndpoint), describe(earlierEndpoint)));
+                }
+            }
+        }
+        if (problems.isEmpty()) return;
+        if (strict) {
+            throw new IllegalStateException("Invalid endpoints configuration: " + String.join("; ", problems));
+        }
+        problems.forEach(problem -> log.warn("Endpoints configuration: {}", problem));
+    }
+
+    private static boolean sameMethodScope(String earlier, String later) {
+        return !StringUtils.hasText(earlier) || !StringUtils.hasText(later)
+                || normalize(earlier).equals(normalize(later));
+    }
+
+    private static boolean coversMethod(String earlierMethod, String laterMethod) {
+        return !StringUtils.hasText(earlierMethod)
+                || (StringUtils.hasText(laterMethod) && normalize(earlierMethod).equals(normalize(laterMethod)));
+    }
+
+    static boolean coversPath(String earlier, String later) {
+        if (earlier.equals(later) || MATCH_ALL.equals(earlier)) return true;
+        if (!PATH_MATCHER.isPattern(later)) return PATH_MATCHER.match(earlier, later);
+        if (earlier.endsWith(MATCH_ALL)) {
+            String prefix = earlier.substring(0, earlier.length() - MATCH_ALL.length());
+            return !PATH_MATCHER.isPattern(prefix) && (later.equals(prefix) || later.startsWith(prefix + "/"));
+        }
+        return false;
+    }
+
+    static boolean overlaps(String first, String second) {
+        String[] firstSegments = StringUtils.tokenizeToStringArray(first, "/", false, true);
+        String[] secondSegments = StringUtils.tokenizeToStringArray(second, "/", false, true);
+        int index = 0;
+        while (index < firstSegments.length && index < secondSegments.length) {
+            String firstSegment = firstSegments[index];
+            String secondSegment = secondSegments[index];
+            if ("**".equals(firstSegment) || "**".equals(secondSegment)) return true;
+            if (!PATH_MATCHER.isPattern(firstSegment) && !PATH_MATCHER.isPattern(secondSegment)
+                    && !firstSegment.equals(secondSegment)) {
+                return false;
+            }
+            index++;
+        }
+        return firstSegments.length == secondSegments.length
+                || (index < firstSegments.length && "**".equals(firstSegments[index]))
+                || (index < secondSegments.length && "**".equals(secondSegments[index]));
+    }
+
+    private static String normalize(String method) {
+        return method.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String describe(EndpointProperties endpoint) {
+        return Optional.ofNullable(endpoint.getMethod()).map(method -> normalize(method) + " ").orElse("")
+                + "'" + endpoint.getPath() + "'";
+    }
+
+    private record Rule(boolean permitAll, List<String> roles, AuthorityMaskAuthorizationManager authorizationManager) {
+
+        static Rule of(EndpointProperties endpoint) {
+            if (Objects.nonNull(endpoint.getRoles()) && endpoint.getRoles().length > 0) {
+                return new Rule(false, List.of(endpoint.getRoles()),
+                        new AuthorityMaskAuthorizationManager(endpoint.getRoles()));
+            }
+            return new Rule(!Boolean.TRUE.equals(endpoint.getAuthenticated()), List.of(), null);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Rule rule && permitAll == rule.permitAll && roles.equals(rule.roles);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(permitAll, roles);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package it.magiavventure.jwt.authority;
+
+import it.magiavventure.mongo.entity.EUser;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Authentication of a jwt user exposing the interned {@link AuthoritySet} instead of a per-request copy
+ * of the granted authorities.
+ */
+public class JwtAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final transient AuthoritySet authoritySet;
+
+    public JwtAuthenticationToken(EUser user, AuthoritySet authoritySet) {
+        super(user, null, null);
+        this.authoritySet = authoritySet;
+    }
+
+    public static JwtAuthenticationToken of(EUser user) {
+        return new JwtAuthenticationToken(user, AuthorityRegistry.intern(user.getAuthorities()));
+    }
+
+    public AuthoritySet getAuthoritySet() {
+        return authoritySet;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return Objects.isNull(authoritySet) ? super.getAuthorities() : authoritySet.getGrantedAuthorities();
+    }
+}
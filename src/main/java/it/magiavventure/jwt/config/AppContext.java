@@ -1,16 +1,28 @@
 package it.magiavventure.jwt.config;
 
 import it.magiavventure.mongo.entity.EUser;
-import lombok.Data;
-import org.springframework.context.annotation.Scope;
-import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.annotation.RequestScope;
 
-@Data
+/**
+ * Compatibility facade over {@link AppContextHolder}: reads and writes the values of the current thread,
+ * so it can be injected as a plain singleton without a request scoped proxy.
+ */
 @Component
-@RequestScope
 public class AppContext {
-    private EUser user;
-    private String jwt;
+
+    public EUser getUser() {
+        return AppContextHolder.getUser();
+    }
+
+    public void setUser(EUser user) {
+        AppContextHolder.set(AppContextHolder.getJwt(), user);
+    }
+
+    public String getJwt() {
+        return AppContextHolder.getJwt();
+    }
+
+    public void setJwt(String jwt) {
+        AppContextHolder.set(jwt, AppContextHolder.getUser());
+    }
 }
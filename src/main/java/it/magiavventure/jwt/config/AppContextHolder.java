@@ -0,0 +1,86 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.mongo.entity.EUser;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Per-thread holder of the authenticated user and jwt, set by the authentication filter for the duration of the
+ * request and cleared afterwards. Work handed to other threads sees the same values when wrapped with
+ * {@link #wrap(Runnable)}, {@link #wrap(Callable)} or submitted to a {@link #propagating(Executor)} executor.
+ * All accesses go through {@link #current()} and {@link #callWith(Snapshot, Callable)}, so the ThreadLocal can be
+ * swapped for a {@code ScopedValue} without changing the callers.
+ */
+public final class AppContextHolder {
+
+    private static final Snapshot EMPTY = new Snapshot(null, null);
+    private static final ThreadLocal<Snapshot> CONTEXT = new ThreadLocal<>();
+
+    private AppContextHolder() {
+    }
+
+    public static void set(String jwt, EUser user) {
+        CONTEXT.set(new Snapshot(jwt, user));
+    }
+
+    public static void clear() {
+        CONTEXT.remove();
+    }
+
+    public static Snapshot current() {
+        Snapshot snapshot = CONTEXT.get();
+        return Objects.isNull(snapshot) ? EMPTY : snapshot;
+    }
+
+    public static EUser getUser() {
+        return current().user();
+    }
+
+    public static String getJwt() {
+        return current().jwt();
+    }
+
+    public static <T> T callWith(Snapshot snapshot, Callable<T> callable) throws Exception {
+        Snapshot previous = CONTEXT.get();
+        CONTEXT.set(snapshot);
+        try {
+            return callable.call();
+        } finally {
+            if (Objects.isNull(previous)) {
+                CONTEXT.remove();
+            } else {
+                CONTEXT.set(previous);
+            }
+        }
+    }
+
+    public static Runnable wrap(Runnable runnable) {
+        Snapshot snapshot = current();
+        return () -> {
+            try {
+                callWith(snapshot, () -> {
+                    runnable.run();
+                    return null;
+                });
+            } catch (RuntimeException | Error exception) {
+                throw exception;
+            } catch (Exception exception) {
+                throw new IllegalStateException(exception);
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> callable) {
+        Snapshot snapshot = current();
+        return () -> callWith(snapshot, callable);
+    }
+
+    public static Executor propagating(Executor executor) {
+        return command -> executor.execute(wrap(command));
+    }
+
+    public record Snapshot(String jwt, EUser user) {
+    }
+}
@@ -0,0 +1,30 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.jwt.audit.AsyncAuditLog;
+import it.magiavventure.jwt.audit.AuditLog;
+import it.magiavventure.jwt.audit.AuditSink;
+import it.magiavventure.jwt.audit.RollingFileAuditSink;
+import it.magiavventure.jwt.metrics.JwtMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "magiavventure.lib.jwt.audit", name = "enabled", havingValue = "true")
+public class JwtAuditConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(AuditSink.class)
+    public AuditSink auditSink(JwtProperties jwtProperties) {
+        return new RollingFileAuditSink(jwtProperties.getAudit());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(AuditLog.class)
+    public AsyncAuditLog auditLog(JwtProperties jwtProperties, AuditSink auditSink,
+                                  ObjectProvider<JwtMetrics> jwtMetricsProvider) {
+        return new AsyncAuditLog(jwtProperties.getAudit(), auditSink, jwtMetricsProvider);
+    }
+}
@@ -0,0 +1,25 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.jwt.config.JwtProperties.CorsProperties;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.util.Optional;
+
+final class JwtCorsConfiguration {
+
+    private JwtCorsConfiguration() {
+    }
+
+    static CorsConfiguration of(JwtProperties jwtProperties) {
+        CorsProperties cors = Optional.ofNullable(jwtProperties.getCors()).orElseGet(CorsProperties::new);
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(cors.getAllowedOrigins());
+        configuration.setAllowedMethods(cors.getAllowedMethods());
+        configuration.setAllowedHeaders(cors.getAllowedHeaders());
+        configuration.setExposedHeaders(cors.getExposedHeaders());
+        if (Boolean.TRUE.equals(jwtProperties.getRenewal().getEnabled())) {
+            configuration.addExposedHeader(jwtProperties.getRenewal().resolveHeader(jwtProperties.getHeader()));
+        }
+        return configuration;
+    }
+}
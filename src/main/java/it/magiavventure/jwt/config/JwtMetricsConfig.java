@@ -0,0 +1,25 @@
+package it.magiavventure.jwt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.magiavventure.jwt.metrics.JwtMetrics;
+import it.magiavventure.jwt.metrics.MicrometerJwtMetrics;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"
+})
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class JwtMetricsConfig {
+
+    @Bean
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnMissingBean(JwtMetrics.class)
+    public JwtMetrics jwtMetrics(MeterRegistry meterRegistry) {
+        return new MicrometerJwtMetrics(meterRegistry);
+    }
+}
@@ -2,8 +2,14 @@ package it.magiavventure.jwt.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Data
 @ConfigurationProperties(prefix = "magiavventure.lib.jwt")
@@ -14,6 +20,22 @@ public class JwtProperties {
     private List<EndpointProperties> endpoints;
     private List<EndpointProperties> excludedEndpoints;
     private CorsProperties cors;
+    private TokenCacheProperties tokenCache = new TokenCacheProperties();
+    private Boolean strictEndpoints = false;
+    private Boolean stateless = false;
+    private Boolean fastVerifier = false;
+    private KeyRingProperties keyRing = new KeyRingProperties();
+    private ClaimProfileProperties claimProfile = new ClaimProfileProperties();
+    private BatchProperties batch = new BatchProperties();
+    private UserBatchProperties userBatch = new UserBatchProperties();
+    private UserCacheProperties userCache = new UserCacheProperties();
+    private RevocationProperties revocation = new RevocationProperties();
+    private RenewalProperties renewal = new RenewalProperties();
+    private RulesProperties rules = new RulesProperties();
+    private AuditProperties audit = new AuditProperties();
+    private PreValidationProperties preValidation = new PreValidationProperties();
+    private InvalidTokenThrottleProperties invalidTokenThrottle = new InvalidTokenThrottleProperties();
+    private Map<String, TenantProperties> tenants = new LinkedHashMap<>();
 
     @Data
     public static class CorsProperties {
@@ -23,6 +45,129 @@ public class JwtProperties {
         private List<String> exposedHeaders;
     }
 
+    @Data
+    public static class TokenCacheProperties {
+        private Boolean enabled = true;
+        private Integer maxSize = 10000;
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class TenantProperties {
+        private String secret;
+        private Long validity;
+        private String header;
+        private KeyRingProperties keyRing;
+    }
+
+    @Data
+    public static class PreValidationProperties {
+        private Boolean enabled = true;
+        private Integer minLength = 32;
+        private Integer maxLength = 16384;
+        private List<String> algorithms = new ArrayList<>(List.of("HS256", "HS384", "HS512", "RS256", "RS384",
+                "RS512", "PS256", "PS384", "PS512", "ES256", "ES384", "ES512", "EdDSA"));
+    }
+
+    @Data
+    public static class InvalidTokenThrottleProperties {
+        private Boolean enabled = false;
+        private Integer stripes = 1024;
+        private Integer burst = 20;
+        private Duration refillPeriod = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class AuditProperties {
+        private Boolean enabled = false;
+        private Integer capacity = 8192;
+        private Integer batchSize = 512;
+        private Duration flushInterval = Duration.ofMillis(200);
+        private String file = "logs/jwt-audit.log";
+        private DataSize maxFileSize = DataSize.ofMegabytes(10);
+        private Integer maxHistory = 5;
+    }
+
+    @Data
+    public static class RulesProperties {
+        private String file;
+        private Duration reloadInterval = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class RenewalProperties {
+        private Boolean enabled = false;
+        private Duration window = Duration.ofMinutes(5);
+        private String header;
+
+        public String resolveHeader(String tokenHeader) {
+            return Objects.nonNull(header) ? header : tokenHeader + "-renewed";
+        }
+    }
+
+    @Data
+    public static class RevocationProperties {
+        private Boolean bloomFilter = false;
+        private Integer expectedRevocations = 10000;
+        private Duration tickDuration = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class UserCacheProperties {
+        private Boolean enabled = true;
+        private String cacheName = "user";
+        private Integer maxSize = 10000;
+        private Duration maxTtl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class UserBatchProperties {
+        private Boolean enabled = false;
+        private Duration window = Duration.ofMillis(2);
+        private Integer maxSize = 100;
+    }
+
+    @Data
+    public static class BatchProperties {
+        private Integer parallelism = Runtime.getRuntime().availableProcessors();
+        private Integer parallelThreshold = 64;
+    }
+
+    @Data
+    public static class ClaimProfileProperties {
+        private Boolean enabled = false;
+        private Map<String, String> claims = new LinkedHashMap<>();
+        private Boolean compactAuthorities = true;
+    }
+
+    @Data
+    public static class KeyRingProperties {
+        private String signingKeyId;
+        private List<HmacKeyProperties> hmac = new ArrayList<>();
+        private List<PublicKeyProperties> publicKeys = new ArrayList<>();
+        private KeyStoreProperties keystore;
+        private Duration reloadInterval;
+    }
+
+    @Data
+    public static class HmacKeyProperties {
+        private String kid;
+        private String secret;
+    }
+
+    @Data
+    public static class PublicKeyProperties {
+        private String kid;
+        private String location;
+    }
+
+    @Data
+    public static class KeyStoreProperties {
+        private String location;
+        private String type = "PKCS12";
+        private String password;
+    }
+
     @Data
     public static class EndpointProperties {
         private String method;
@@ -0,0 +1,61 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.common.model.HttpError;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.model.Category;
+import it.magiavventure.mongo.model.User;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.boot.context.properties.bind.BindableRuntimeHintsRegistrar;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Native image hints of the library: the jjwt implementation classes the api instantiates by name, the
+ * service-loaded jjwt-jackson serializers, the types converted by Jackson and the {@link JwtProperties} bound
+ * programmatically by {@link SecurityRulesRegistry}. Registered through {@code META-INF/spring/aot.factories}.
+ */
+public class JwtRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> JJWT_IMPLEMENTATION_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder");
+
+    private static final List<String> JJWT_SERVICE_TYPES = List.of(
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    private static final List<String> JJWT_SERVICE_RESOURCES = List.of(
+            "META-INF/services/io.jsonwebtoken.io.Serializer",
+            "META-INF/services/io.jsonwebtoken.io.Deserializer");
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+        JJWT_IMPLEMENTATION_TYPES.forEach(type -> hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+        JJWT_SERVICE_TYPES.forEach(type -> hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        JJWT_SERVICE_RESOURCES.forEach(hints.resources()::registerPattern);
+        bindingRegistrar.registerReflectionHints(hints.reflection(), User.class, EUser.class, Category.class,
+                HttpError.class);
+        BindableRuntimeHintsRegistrar.forTypes(JwtProperties.class).registerHints(hints, classLoader);
+    }
+}
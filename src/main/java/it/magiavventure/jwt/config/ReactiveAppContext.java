@@ -0,0 +1,30 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.mongo.entity.EUser;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Reactive counterpart of {@link AppContext}: the authenticated user and jwt travel in the Reactor context
+ * written by the {@link it.magiavventure.jwt.filter.JwtAuthenticationWebFilter}.
+ */
+public final class ReactiveAppContext {
+
+    private static final String USER_KEY = ReactiveAppContext.class.getName() + ".USER";
+    private static final String JWT_KEY = ReactiveAppContext.class.getName() + ".JWT";
+
+    private ReactiveAppContext() {
+    }
+
+    public static Context with(String jwt, EUser user) {
+        return Context.of(JWT_KEY, jwt, USER_KEY, user);
+    }
+
+    public static Mono<EUser> getUser() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.<EUser>getOrEmpty(USER_KEY)));
+    }
+
+    public static Mono<String> getJwt() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.<String>getOrEmpty(JWT_KEY)));
+    }
+}
@@ -0,0 +1,94 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.common.error.handler.DefaultExceptionHandler;
+import it.magiavventure.jwt.error.JwtException;
+import it.magiavventure.jwt.filter.JwtAuthenticationWebFilter;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.jwt.service.ReactiveOwnershipService;
+import it.magiavventure.jwt.service.ReactiveUserJwtService;
+import it.magiavventure.jwt.service.UserJwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+@Slf4j
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity serverHttpSecurity,
+                                                         JwtService jwtService,
+                                                         ReactiveUserJwtService reactiveUserJwtService,
+                                                         DefaultExceptionHandler defaultExceptionHandler,
+                                                         SecurityRulesRegistry securityRulesRegistry) {
+        JwtAuthenticationWebFilter jwtAuthenticationWebFilter = new JwtAuthenticationWebFilter(jwtService,
+                reactiveUserJwtService, defaultExceptionHandler, securityRulesRegistry);
+        serverHttpSecurity
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .cors(corsSpec -> corsSpec
+                        .configurationSource(reactiveCorsConfigurationSource(securityRulesRegistry)))
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+
+        addPathMatchers(serverHttpSecurity, securityRulesRegistry);
+
+        serverHttpSecurity.addFilterAt(jwtAuthenticationWebFilter, SecurityWebFiltersOrder.AUTHENTICATION);
+
+        serverHttpSecurity
+                .exceptionHandling(exceptionHandlingSpec -> exceptionHandlingSpec
+                        .authenticationEntryPoint((exchange, authenticationException) -> jwtAuthenticationWebFilter
+                                .writeError(exchange.getResponse(),
+                                        MagiavventureException.of(JwtException.NOT_AUTHENTICATED)))
+                        .accessDeniedHandler((exchange, accessDeniedException) -> jwtAuthenticationWebFilter
+                                .writeError(exchange.getResponse(),
+                                        MagiavventureException.of(JwtException.ACCESS_DENIED))));
+
+        return serverHttpSecurity.build();
+    }
+
+    private void addPathMatchers(ServerHttpSecurity serverHttpSecurity,
+                                 SecurityRulesRegistry securityRulesRegistry) {
+        serverHttpSecurity.authorizeExchange(exchanges -> exchanges
+                .anyExchange()
+                .access((authentication, context) -> {
+                    ServerHttpRequest request = context.getExchange().getRequest();
+                    return authentication
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .map(current -> securityRulesRegistry.current().endpointAuthorizationManager()
+                                    .decide(request.getMethod().name(),
+                                            request.getPath().pathWithinApplication().value(),
+                                            () -> current.orElse(null)));
+                }));
+    }
+
+    @Bean
+    CorsConfigurationSource reactiveCorsConfigurationSource(SecurityRulesRegistry securityRulesRegistry) {
+        return exchange -> securityRulesRegistry.current().corsConfiguration();
+    }
+
+    @Bean
+    public ReactiveUserJwtService reactiveUserJwtService(UserJwtService userJwtService) {
+        return new ReactiveUserJwtService(userJwtService, Schedulers.boundedElastic());
+    }
+
+    @Bean
+    public ReactiveOwnershipService reactiveOwnershipService() {
+        return new ReactiveOwnershipService();
+    }
+}
@@ -0,0 +1,30 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.jwt.authority.EndpointAuthorizationManager;
+import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
+import it.magiavventure.jwt.matcher.EndpointIndex;
+import org.springframework.web.cors.CorsConfiguration;
+
+/**
+ * Immutable, precompiled snapshot of the endpoint, excluded endpoint and cors rules.
+ */
+public record SecurityRules(EndpointAuthorizationManager endpointAuthorizationManager,
+                            EndpointIndex<EndpointProperties> excludedEndpoints,
+                            CorsConfiguration corsConfiguration) {
+
+    public static SecurityRules of(JwtProperties jwtProperties) {
+        return of(jwtProperties, true);
+    }
+
+    /**
+     * @param checkOverlaps whether shadowed and overlapping endpoints are looked for, a pairwise check meant for
+     *                      startup only
+     */
+    public static SecurityRules of(JwtProperties jwtProperties, boolean checkOverlaps) {
+        return new SecurityRules(
+                new EndpointAuthorizationManager(jwtProperties.getEndpoints(),
+                        Boolean.TRUE.equals(jwtProperties.getStrictEndpoints()), checkOverlaps),
+                EndpointIndex.ofEndpoints(jwtProperties.getExcludedEndpoints()),
+                JwtCorsConfiguration.of(jwtProperties));
+    }
+}
@@ -0,0 +1,73 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.jwt.service.JwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+@AutoConfiguration
+public class SecurityRulesConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SecurityRulesRegistry securityRulesRegistry(JwtProperties jwtProperties) {
+        return new SecurityRulesRegistry(jwtProperties);
+    }
+
+    @Slf4j
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.cloud.context.environment.EnvironmentChangeEvent")
+    static class RefreshConfig {
+
+        private static final String PREFIX = "magiavventure.lib.jwt";
+        private static final List<String> KEY_PROPERTIES = List.of(PREFIX + ".secret", PREFIX + ".keyring.",
+                PREFIX + ".tenants.");
+
+        @Bean
+        public ApplicationListener<EnvironmentChangeEvent> securityRulesRefreshListener(
+                SecurityRulesRegistry securityRulesRegistry, Environment environment) {
+            return event -> {
+                if (anyChanged(event.getKeys(), List.of(PREFIX + "."))) {
+                    securityRulesRegistry.refresh(ConfigurationPropertySources.get(environment), event.getKeys());
+                }
+            };
+        }
+
+        @Bean
+        public ApplicationListener<EnvironmentChangeEvent> keyRingRefreshListener(
+                ObjectProvider<JwtService> jwtServiceProvider, Environment environment) {
+            return event -> {
+                if (!anyChanged(event.getKeys(), KEY_PROPERTIES)) return;
+                jwtServiceProvider.ifAvailable(jwtService -> {
+                    try {
+                        jwtService.reloadKeys(new Binder(ConfigurationPropertySources.get(environment))
+                                .bind(PREFIX, Bindable.of(JwtProperties.class))
+                                .orElseGet(JwtProperties::new));
+                    } catch (RuntimeException exception) {
+                        log.error("Unable to reload the key ring, the previous keys are kept", exception);
+                    }
+                });
+            };
+        }
+
+        private static boolean anyChanged(Collection<String> keys, List<String> prefixes) {
+            return keys.stream()
+                    .map(key -> key.toLowerCase(Locale.ROOT).replace('_', '.').replace("-", ""))
+                    .anyMatch(key -> prefixes.stream().anyMatch(key::startsWith));
+        }
+    }
+}
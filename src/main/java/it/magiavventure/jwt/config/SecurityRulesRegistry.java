@@ -0,0 +1,199 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.jwt.config.JwtProperties.RulesProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyState;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
+
+/**
+ * Holder of the current {@link SecurityRules}. A refresh compiles a new snapshot and swaps it atomically, so
+ * requests keep the snapshot they started with and never see a partial update; a snapshot that fails to compile
+ * leaves the current one in place. Rules are refreshed from the optional rules file, polled for changes, or by
+ * {@link #refresh(Iterable, Collection)} when the environment changes. The rules file is layered over the
+ * environment: a rule property defined by a source, even as empty, replaces the one below it, a rule property
+ * the source does not define keeps the one below it.
+ */
+@Slf4j
+public class SecurityRulesRegistry implements DisposableBean {
+
+    private static final String PREFIX = "magiavventure.lib.jwt";
+    private static final String ENDPOINTS = "endpoints";
+    private static final String EXCLUDED_ENDPOINTS = "excluded-endpoints";
+    private static final String CORS = "cors";
+    private static final Set<String> RULE_PROPERTIES = Set.of(ENDPOINTS, EXCLUDED_ENDPOINTS, CORS);
+
+    private final JwtProperties jwtProperties;
+    private final String file;
+    private final ScheduledExecutorService reloadExecutor;
+    private volatile JwtProperties environmentRules;
+    private volatile SecurityRules securityRules;
+    private volatile long lastModified;
+
+    public SecurityRulesRegistry(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        RulesProperties rulesProperties = Optional.ofNullable(jwtProperties.getRules())
+                .orElseGet(RulesProperties::new);
+        this.file = rulesProperties.getFile();
+        this.lastModified = lastModified(file);
+        this.environmentRules = merge(jwtProperties, jwtProperties, RULE_PROPERTIES);
+        this.securityRules = SecurityRules.of(withFile(environmentRules));
+        this.reloadExecutor = scheduleReload(rulesProperties.getReloadInterval());
+    }
+
+    public SecurityRules current() {
+        return securityRules;
+    }
+
+    /**
+     * Replaces the environment rules with the endpoints, excluded endpoints and cors of the given properties,
+     * as they are, and compiles them with the rules file.
+     */
+    public boolean refresh(JwtProperties refreshedProperties) {
+        return refresh(refreshedProperties, RULE_PROPERTIES);
+    }
+
+    /**
+     * Refreshes the environment rules from the given property sources: the rule properties they define, or that
+     * are among the changed keys because they were removed, replace the current ones.
+     */
+    public boolean refresh(Iterable<ConfigurationPropertySource> sources, Collection<String> changedKeys) {
+        return refresh(bind(new Binder(sources)), definedProperties(sources, changedKeys));
+    }
+
+    private synchronized boolean refresh(JwtProperties refreshedProperties, Set<String> definedProperties) {
+        try {
+            JwtProperties refreshedRules = merge(environmentRules, refreshedProperties, definedProperties);
+            securityRules = SecurityRules.of(withFile(refreshedRules), false);
+            environmentRules = refreshedRules;
+            log.info("Security rules refreshed - endpoints: {} - excluded endpoints: {}",
+                    Optional.ofNullable(refreshedRules.getEndpoints()).map(List::size).orElse(0),
+                    securityRules.excludedEndpoints().size());
+            return true;
+        } catch (RuntimeException exception) {
+            log.error("Unable to refresh the security rules, the previous rules are kept", exception);
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(reloadExecutor)) {
+            reloadExecutor.shutdownNow();
+        }
+    }
+
+    private static JwtProperties bind(Binder binder) {
+        return binder.bind(PREFIX, Bindable.of(JwtProperties.class)).orElseGet(JwtProperties::new);
+    }
+
+    private void reloadIfModified() {
+        long modified = lastModified(file);
+        if (modified == lastModified) return;
+        lastModified = modified;
+        refresh(environmentRules, Set.of());
+    }
+
+    private JwtProperties withFile(JwtProperties rules) {
+        if (Objects.isNull(file)) return rules;
+        List<PropertySource<?>> propertySources = load(file);
+        Iterable<ConfigurationPropertySource> sources = ConfigurationPropertySources.from(propertySources);
+        return merge(rules, bind(new Binder(sources)), definedProperties(sources, Set.of()));
+    }
+
+    private JwtProperties merge(JwtProperties base, JwtProperties override, Set<String> definedProperties) {
+        JwtProperties merged = new JwtProperties();
+        merged.setHeader(jwtProperties.getHeader());
+        merged.setRenewal(jwtProperties.getRenewal());
+        merged.setStrictEndpoints(jwtProperties.getStrictEndpoints());
+        merged.setEndpoints(definedProperties.contains(ENDPOINTS) ? override.getEndpoints() : base.getEndpoints());
+        merged.setExcludedEndpoints(definedProperties.contains(EXCLUDED_ENDPOINTS)
+                ? override.getExcludedEndpoints()
+                : base.getExcludedEndpoints());
+        merged.setCors(definedProperties.contains(CORS) ? override.getCors() : base.getCors());
+        return merged;
+    }
+
+    private static Set<String> definedProperties(Iterable<ConfigurationPropertySource> sources,
+                                                 Collection<String> changedKeys) {
+        Set<String> definedProperties = new HashSet<>();
+        for (String property : RULE_PROPERTIES) {
+            ConfigurationPropertyName name = ConfigurationPropertyName.of(PREFIX + "." + property);
+            boolean defined = StreamSupport.stream(sources.spliterator(), false)
+                    .anyMatch(source -> Objects.nonNull(source.getConfigurationProperty(name))
+                            || source.containsDescendantOf(name) == ConfigurationPropertyState.PRESENT);
+            String normalizedName = normalize(name.toString());
+            boolean changed = changedKeys.stream()
+                    .map(SecurityRulesRegistry::normalize)
+                    .anyMatch(key -> key.equals(normalizedName) || key.startsWith(normalizedName + ".")
+                            || key.startsWith(normalizedName + "["));
+            if (defined || changed) definedProperties.add(property);
+        }
+        return definedProperties;
+    }
+
+    private static String normalize(String key) {
+        return key.toLowerCase(Locale.ROOT).replace('_', '.').replace("-", "");
+    }
+
+    private static List<PropertySource<?>> load(String file) {
+        PropertySourceLoader loader = file.endsWith(".yml") || file.endsWith(".yaml")
+                ? new YamlPropertySourceLoader()
+                : new PropertiesPropertySourceLoader();
+        try {
+            return loader.load(file, new FileSystemResource(file));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Unable to read the security rules file " + file, exception);
+        }
+    }
+
+    private static long lastModified(String file) {
+        if (Objects.isNull(file)) return 0L;
+        try {
+            return Files.getLastModifiedTime(Path.of(file)).toMillis();
+        } catch (IOException exception) {
+            return -1L;
+        }
+    }
+
+    private ScheduledExecutorService scheduleReload(Duration reloadInterval) {
+        if (Objects.isNull(file) || Objects.isNull(reloadInterval) || reloadInterval.isZero()
+                || reloadInterval.isNegative()) {
+            return null;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-security-rules-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = reloadInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::reloadIfModified, interval, interval, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+}
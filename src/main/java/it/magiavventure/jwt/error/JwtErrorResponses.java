@@ -0,0 +1,68 @@
+package it.magiavventure.jwt.error;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.common.error.handler.DefaultExceptionHandler;
+import it.magiavventure.common.model.HttpError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Error bodies of the {@link JwtException} keys, rendered once through the {@link DefaultExceptionHandler}
+ * so that rejecting a request only has to copy bytes to the response.
+ */
+@Slf4j
+public class JwtErrorResponses {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final DefaultExceptionHandler defaultExceptionHandler;
+    private final Map<String, RenderedError> renderedErrors;
+
+    public JwtErrorResponses(DefaultExceptionHandler defaultExceptionHandler) {
+        this.defaultExceptionHandler = defaultExceptionHandler;
+        this.renderedErrors = renderErrors();
+    }
+
+    public RenderedError render(MagiavventureException magiavventureException) {
+        return Optional.ofNullable(magiavventureException.getError())
+                .map(error -> renderedErrors.get(error.getKey()))
+                .orElseGet(() -> renderOnDemand(magiavventureException));
+    }
+
+    private RenderedError renderOnDemand(MagiavventureException magiavventureException) {
+        ResponseEntity<HttpError> responseEntity
+                = defaultExceptionHandler.handleException(magiavventureException);
+        try {
+            return new RenderedError(responseEntity.getStatusCode().value(),
+                    OBJECT_MAPPER.writeValueAsBytes(responseEntity.getBody()));
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private Map<String, RenderedError> renderErrors() {
+        Map<String, RenderedError> errors = new HashMap<>();
+        if (Objects.isNull(defaultExceptionHandler)) return errors;
+        List.of(JwtException.NOT_AUTHENTICATED, JwtException.ACCESS_DENIED, JwtException.OWNERSHIP)
+                .forEach(key -> {
+                    try {
+                        errors.put(key, renderOnDemand(MagiavventureException.of(key)));
+                    } catch (RuntimeException exception) {
+                        log.warn("Unable to pre-render error response for key '{}', it will be rendered on demand",
+                                key);
+                    }
+                });
+        return errors;
+    }
+
+    public record RenderedError(int status, byte[] body) {
+    }
+}
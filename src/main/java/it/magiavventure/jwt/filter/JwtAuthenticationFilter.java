@@ -1,88 +1,144 @@
 package it.magiavventure.jwt.filter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import it.magiavventure.common.error.MagiavventureException;
 import it.magiavventure.common.error.handler.DefaultExceptionHandler;
-import it.magiavventure.common.model.HttpError;
+import it.magiavventure.jwt.audit.AuditLog;
+import it.magiavventure.jwt.authority.JwtAuthenticationToken;
 import it.magiavventure.jwt.config.JwtProperties;
 import it.magiavventure.jwt.config.AppContext;
+import it.magiavventure.jwt.config.AppContextHolder;
+import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
+import it.magiavventure.jwt.config.SecurityRulesRegistry;
+import it.magiavventure.jwt.error.JwtErrorResponses;
+import it.magiavventure.jwt.error.JwtException;
+import it.magiavventure.jwt.error.JwtErrorResponses.RenderedError;
+import it.magiavventure.jwt.matcher.EndpointIndex;
+import it.magiavventure.jwt.metrics.JwtMetrics;
 import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.jwt.service.VerifiedToken;
 import it.magiavventure.mongo.entity.EUser;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final JwtProperties jwtProperties;
     private final DefaultExceptionHandler defaultExceptionHandler;
-    private final AppContext appContext;
+    private final Supplier<EndpointIndex<EndpointProperties>> excludedEndpoints;
+    private final JwtErrorResponses jwtErrorResponses;
+    private final JwtMetrics jwtMetrics;
+    private final AuditLog auditLog;
 
+    /**
+     * @deprecated the user and jwt are kept in {@link AppContextHolder}, use the constructor without AppContext
+     */
+    @Deprecated
     public JwtAuthenticationFilter(JwtService jwtService, JwtProperties jwtProperties,
                                    DefaultExceptionHandler defaultExceptionHandler, AppContext appContext) {
+        this(jwtService, jwtProperties, defaultExceptionHandler);
+    }
+
+    public JwtAuthenticationFilter(JwtService jwtService, JwtProperties jwtProperties,
+                                   DefaultExceptionHandler defaultExceptionHandler) {
+        this(jwtService, jwtProperties, defaultExceptionHandler,
+                fixed(EndpointIndex.ofEndpoints(jwtProperties.getExcludedEndpoints())));
+    }
+
+    public JwtAuthenticationFilter(JwtService jwtService, JwtProperties jwtProperties,
+                                   DefaultExceptionHandler defaultExceptionHandler,
+                                   SecurityRulesRegistry securityRulesRegistry) {
+        this(jwtService, jwtProperties, defaultExceptionHandler,
+                () -> securityRulesRegistry.current().excludedEndpoints());
+    }
+
+    private JwtAuthenticationFilter(JwtService jwtService, JwtProperties jwtProperties,
+                                    DefaultExceptionHandler defaultExceptionHandler,
+                                    Supplier<EndpointIndex<EndpointProperties>> excludedEndpoints) {
         this.jwtService = jwtService;
         this.jwtProperties = jwtProperties;
         this.defaultExceptionHandler = defaultExceptionHandler;
-        this.appContext = appContext;
+        this.excludedEndpoints = excludedEndpoints;
+        this.jwtErrorResponses = new JwtErrorResponses(defaultExceptionHandler);
+        this.jwtMetrics = jwtService.getJwtMetrics();
+        this.auditLog = jwtService.getAuditLog();
     }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
 
+        try {
+            if (authenticate(request, response)) {
+                filterChain.doFilter(request, response);
+            }
+        } finally {
+            AppContextHolder.clear();
+        }
+    }
+
+    private boolean authenticate(HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
             String token = jwtService.resolveToken(request);
-            EUser eUser = jwtService.extractUser(token);
-            appContext.setJwt(token);
-            appContext.setUser(eUser);
-            List<SimpleGrantedAuthority> authorities = Optional.ofNullable(eUser.getAuthorities())
-                    .orElse(new ArrayList<>())
-                    .stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .toList();
-            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(eUser,
-                    null, authorities);
+            VerifiedToken verifiedToken = jwtService.resolveVerifiedToken(token, request.getRemoteAddr());
+            EUser eUser = jwtService.extractUser(verifiedToken);
+            AppContextHolder.set(token, eUser);
+            JwtAuthenticationToken authenticationToken = JwtAuthenticationToken.of(eUser);
             authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            filterChain.doFilter(request, response);
+            jwtService.renewJwt(verifiedToken, eUser)
+                    .ifPresent(renewedToken -> response.setHeader(jwtService.getRenewalHeader(), renewedToken));
+            jwtMetrics.outcome(JwtMetrics.AUTHENTICATED);
+            auditLog.publish(eUser.getId(), JwtMetrics.AUTHENTICATED, request.getMethod(),
+                    EndpointIndex.requestPath(request));
+            return true;
         } catch(MagiavventureException magiavventureException) {
-            handleException(response, magiavventureException);
+            jwtMetrics.outcome(magiavventureException.getError().getKey());
+            auditLog.publish(null, magiavventureException.getError().getKey(), request.getMethod(),
+                    EndpointIndex.requestPath(request));
+            writeError(response, magiavventureException);
+            return false;
         }
     }
 
     @Override
     protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
-        return Optional.ofNullable(jwtProperties.getExcludedEndpoints())
-                .orElse(new ArrayList<>())
-                .stream()
-                .anyMatch(exEndpoint -> AntPathRequestMatcher.antMatcher(
-                        HttpMethod.valueOf(exEndpoint.getMethod()), exEndpoint.getPath()).matches(request));
+        boolean excluded = excludedEndpoints.get().matches(request);
+        if (excluded) jwtMetrics.excluded();
+        return excluded;
+    }
+
+    private static Supplier<EndpointIndex<EndpointProperties>> fixed(EndpointIndex<EndpointProperties> index) {
+        return () -> index;
+    }
+
+    public void accessDenied(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UUID userId = Optional.ofNullable(AppContextHolder.getUser()).map(EUser::getId).orElse(null);
+        jwtMetrics.outcome(JwtException.ACCESS_DENIED);
+        auditLog.publish(userId, JwtException.ACCESS_DENIED, request.getMethod(), EndpointIndex.requestPath(request));
+        writeError(response, MagiavventureException.of(JwtException.ACCESS_DENIED));
     }
 
-    private void handleException(HttpServletResponse response,
-                                 MagiavventureException magiavventureException) throws IOException {
-        ResponseEntity<HttpError> responseEntity
-                = defaultExceptionHandler.handleException(magiavventureException);
-        response.setStatus(responseEntity.getStatusCode().value());
-        response.setContentType("application/json");
-        ObjectMapper mapper = new ObjectMapper();
-        response.getWriter().print(mapper.writeValueAsString(responseEntity.getBody()));
+    public void writeError(HttpServletResponse response,
+                           MagiavventureException magiavventureException) throws IOException {
+        RenderedError renderedError = jwtErrorResponses.render(magiavventureException);
+        response.setStatus(renderedError.status());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(renderedError.body().length);
+        response.getOutputStream().write(renderedError.body());
         response.flushBuffer();
     }
+
 }
@@ -0,0 +1,137 @@
+package it.magiavventure.jwt.filter;
+
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.common.error.handler.DefaultExceptionHandler;
+import it.magiavventure.jwt.audit.AuditLog;
+import it.magiavventure.jwt.authority.JwtAuthenticationToken;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
+import it.magiavventure.jwt.config.ReactiveAppContext;
+import it.magiavventure.jwt.config.SecurityRulesRegistry;
+import it.magiavventure.jwt.error.JwtErrorResponses;
+import it.magiavventure.jwt.error.JwtErrorResponses.RenderedError;
+import it.magiavventure.jwt.matcher.EndpointIndex;
+import it.magiavventure.jwt.metrics.JwtMetrics;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.jwt.service.ReactiveUserJwtService;
+import it.magiavventure.jwt.service.VerifiedToken;
+import it.magiavventure.mongo.entity.EUser;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final JwtService jwtService;
+    private final ReactiveUserJwtService reactiveUserJwtService;
+    private final Supplier<EndpointIndex<EndpointProperties>> excludedEndpoints;
+    private final JwtErrorResponses jwtErrorResponses;
+    private final JwtMetrics jwtMetrics;
+    private final AuditLog auditLog;
+
+    public JwtAuthenticationWebFilter(JwtService jwtService, ReactiveUserJwtService reactiveUserJwtService,
+                                      JwtProperties jwtProperties,
+                                      DefaultExceptionHandler defaultExceptionHandler) {
+        this(jwtService, reactiveUserJwtService, defaultExceptionHandler,
+                fixed(EndpointIndex.ofEndpoints(jwtProperties.getExcludedEndpoints())));
+    }
+
+    public JwtAuthenticationWebFilter(JwtService jwtService, ReactiveUserJwtService reactiveUserJwtService,
+                                      DefaultExceptionHandler defaultExceptionHandler,
+                                      SecurityRulesRegistry securityRulesRegistry) {
+        this(jwtService, reactiveUserJwtService, defaultExceptionHandler,
+                () -> securityRulesRegistry.current().excludedEndpoints());
+    }
+
+    private JwtAuthenticationWebFilter(JwtService jwtService, ReactiveUserJwtService reactiveUserJwtService,
+                                       DefaultExceptionHandler defaultExceptionHandler,
+                                       Supplier<EndpointIndex<EndpointProperties>> excludedEndpoints) {
+        this.jwtService = jwtService;
+        this.reactiveUserJwtService = reactiveUserJwtService;
+        this.excludedEndpoints = excludedEndpoints;
+        this.jwtErrorResponses = new JwtErrorResponses(defaultExceptionHandler);
+        this.jwtMetrics = jwtService.getJwtMetrics();
+        this.auditLog = jwtService.getAuditLog();
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (excludedEndpoints.get()
+                .matches(request.getMethod().name(), request.getPath().pathWithinApplication().value())) {
+            jwtMetrics.excluded();
+            return chain.filter(exchange);
+        }
+        return authenticate(request)
+                .doOnNext(authenticated -> {
+                    jwtMetrics.outcome(JwtMetrics.AUTHENTICATED);
+                    auditLog.publish(authenticated.user().getId(), JwtMetrics.AUTHENTICATED,
+                            request.getMethod().name(), request.getPath().pathWithinApplication().value());
+                    jwtService.renewJwt(authenticated.verifiedToken(), authenticated.user())
+                            .ifPresent(renewedToken -> exchange.getResponse()
+                                    .getHeaders().set(jwtService.getRenewalHeader(), renewedToken));
+                })
+                .onErrorResume(MagiavventureException.class, magiavventureException -> {
+                    jwtMetrics.outcome(magiavventureException.getError().getKey());
+                    auditLog.publish(null, magiavventureException.getError().getKey(),
+                            request.getMethod().name(), request.getPath().pathWithinApplication().value());
+                    return writeError(exchange.getResponse(), magiavventureException)
+                            .then(Mono.<Authenticated>empty());
+                })
+                .flatMap(authenticated -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authenticated.authentication()))
+                        .contextWrite(ReactiveAppContext.with(authenticated.jwt(), authenticated.user())));
+    }
+
+    public Mono<Void> writeError(ServerHttpResponse response, MagiavventureException magiavventureException) {
+        RenderedError renderedError = jwtErrorResponses.render(magiavventureException);
+        response.setStatusCode(HttpStatusCode.valueOf(renderedError.status()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(renderedError.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(renderedError.body())));
+    }
+
+    private static Supplier<EndpointIndex<EndpointProperties>> fixed(EndpointIndex<EndpointProperties> index) {
+        return () -> index;
+    }
+
+    private Mono<Authenticated> authenticate(ServerHttpRequest request) {
+        return Mono.fromCallable(() -> jwtService.resolveToken(request.getHeaders()))
+                .flatMap(token -> Mono.fromCallable(() -> jwtService.resolveVerifiedToken(token, client(request)))
+                        .flatMap(verifiedToken -> retrieveUser(verifiedToken)
+                                .map(eUser -> new Authenticated(token, verifiedToken, eUser))));
+    }
+
+    private Mono<EUser> retrieveUser(VerifiedToken verifiedToken) {
+        if (jwtService.isStateless()) {
+            return Mono.fromCallable(() -> jwtService.extractUser(verifiedToken));
+        }
+        return reactiveUserJwtService.retrieveById(verifiedToken.user().getId());
+    }
+
+    private static String client(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (Objects.isNull(remoteAddress)) return null;
+        return Objects.isNull(remoteAddress.getAddress())
+                ? remoteAddress.getHostString()
+                : remoteAddress.getAddress().getHostAddress();
+    }
+
+    private record Authenticated(String jwt, VerifiedToken verifiedToken, EUser user) {
+        JwtAuthenticationToken authentication() {
+            return JwtAuthenticationToken.of(user);
+        }
+    }
+}
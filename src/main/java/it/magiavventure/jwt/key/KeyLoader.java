@@ -0,0 +1,179 @@
+package it.magiavventure.jwt.key;
+
+import io.jsonwebtoken.security.Keys;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.JwtProperties.KeyRingProperties;
+import it.magiavventure.jwt.config.JwtProperties.KeyStoreProperties;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+final class KeyLoader {
+
+    private static final List<String> PUBLIC_KEY_ALGORITHMS = List.of("RSA", "EC", "Ed25519", "Ed448");
+
+    private KeyLoader() {
+    }
+
+    static KeySnapshot load(JwtProperties jwtProperties) {
+        KeyRingProperties keyRingProperties = keyRingProperties(jwtProperties);
+        Map<String, Key> verificationKeys = new HashMap<>();
+        Map<String, Key> signingKeys = new HashMap<>();
+        SecretKey legacyKey = StringUtils.hasText(jwtProperties.getSecret())
+                ? hmacKey(jwtProperties.getSecret())
+                : null;
+
+        Optional.ofNullable(keyRingProperties.getHmac())
+                .orElse(List.of())
+                .forEach(hmac -> {
+                    SecretKey secretKey = hmacKey(hmac.getSecret());
+                    put(verificationKeys, hmac.getKid(), secretKey);
+                    signingKeys.put(hmac.getKid(), secretKey);
+                });
+        Optional.ofNullable(keyRingProperties.getPublicKeys())
+                .orElse(List.of())
+                .forEach(publicKey -> put(verificationKeys, publicKey.getKid(),
+                        readPublicKey(Path.of(publicKey.getLocation()))));
+        KeyStoreProperties keyStoreProperties = keyRingProperties.getKeystore();
+        if (Objects.nonNull(keyStoreProperties) && StringUtils.hasText(keyStoreProperties.getLocation())) {
+            loadKeyStore(keyStoreProperties, verificationKeys, signingKeys);
+        }
+
+        String signingKeyId = keyRingProperties.getSigningKeyId();
+        if (StringUtils.hasText(signingKeyId)) {
+            Key signingKey = signingKeys.get(signingKeyId);
+            if (Objects.isNull(signingKey)) {
+                throw new IllegalStateException("No secret or private key found for signing key id '"
+                        + signingKeyId + "'");
+            }
+            Key defaultKey = Objects.nonNull(legacyKey) ? legacyKey : verificationKeys.get(signingKeyId);
+            return new KeySnapshot(Map.copyOf(verificationKeys), defaultKey,
+                    new SigningKey(signingKeyId, signingKey));
+        }
+        if (Objects.isNull(legacyKey)) {
+            throw new IllegalStateException("Either magiavventure.lib.jwt.secret or "
+                    + "magiavventure.lib.jwt.key-ring.signing-key-id must be configured");
+        }
+        return new KeySnapshot(Map.copyOf(verificationKeys), legacyKey, new SigningKey(null, legacyKey));
+    }
+
+    static long lastModified(JwtProperties jwtProperties) {
+        KeyRingProperties keyRingProperties = keyRingProperties(jwtProperties);
+        Stream<String> publicKeyLocations = Optional.ofNullable(keyRingProperties.getPublicKeys())
+                .orElse(List.of())
+                .stream()
+                .map(JwtProperties.PublicKeyProperties::getLocation);
+        Stream<String> keyStoreLocation = Optional.ofNullable(keyRingProperties.getKeystore())
+                .map(KeyStoreProperties::getLocation)
+                .stream();
+        return Stream.concat(publicKeyLocations, keyStoreLocation)
+                .filter(StringUtils::hasText)
+                .mapToLong(location -> {
+                    try {
+                        return Files.getLastModifiedTime(Path.of(location)).toMillis();
+                    } catch (IOException exception) {
+                        return 0L;
+                    }
+                })
+                .max()
+                .orElse(0L);
+    }
+
+    static SecretKey hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KeyRingProperties keyRingProperties(JwtProperties jwtProperties) {
+        return Optional.ofNullable(jwtProperties.getKeyRing()).orElseGet(KeyRingProperties::new);
+    }
+
+    private static void put(Map<String, Key> keys, String kid, Key key) {
+        if (!StringUtils.hasText(kid)) {
+            throw new IllegalStateException("Every key of the key ring needs a kid");
+        }
+        if (Objects.nonNull(keys.putIfAbsent(kid, key))) {
+            throw new IllegalStateException("Duplicated kid '" + kid + "' in the key ring");
+        }
+    }
+
+    private static PublicKey readPublicKey(Path path) {
+        try {
+            String pem = Files.readString(path, StandardCharsets.US_ASCII);
+            if (pem.contains("BEGIN CERTIFICATE")) {
+                try (InputStream inputStream = Files.newInputStream(path)) {
+                    return CertificateFactory.getInstance("X.509").generateCertificate(inputStream).getPublicKey();
+                }
+            }
+            X509EncodedKeySpec keySpec = new X509EncodedKeySpec(Base64.getMimeDecoder()
+                    .decode(pem.replaceAll("-----[A-Z ]+-----", "")));
+            for (String algorithm : PUBLIC_KEY_ALGORITHMS) {
+                try {
+                    return KeyFactory.getInstance(algorithm).generatePublic(keySpec);
+                } catch (GeneralSecurityException exception) {
+                    // not a key of this algorithm, try the next one
+                }
+            }
+            throw new IllegalStateException("Unsupported public key in '" + path + "'");
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("Unable to read certificate '" + path + "'", exception);
+        }
+    }
+
+    private static void loadKeyStore(KeyStoreProperties keyStoreProperties, Map<String, Key> verificationKeys,
+                                     Map<String, Key> signingKeys) {
+        char[] password = Optional.ofNullable(keyStoreProperties.getPassword())
+                .map(String::toCharArray)
+                .orElse(null);
+        try (InputStream inputStream = Files.newInputStream(Path.of(keyStoreProperties.getLocation()))) {
+            KeyStore keyStore = KeyStore.getInstance(keyStoreProperties.getType());
+            keyStore.load(inputStream, password);
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (keyStore.isKeyEntry(alias)) {
+                    Key key = keyStore.getKey(alias, password);
+                    if (key instanceof SecretKey secretKey) {
+                        put(verificationKeys, alias, secretKey);
+                        signingKeys.put(alias, secretKey);
+                    } else if (key instanceof PrivateKey privateKey) {
+                        Certificate certificate = keyStore.getCertificate(alias);
+                        if (Objects.nonNull(certificate)) {
+                            put(verificationKeys, alias, certificate.getPublicKey());
+                        }
+                        signingKeys.put(alias, privateKey);
+                    }
+                } else if (keyStore.isCertificateEntry(alias)) {
+                    put(verificationKeys, alias, keyStore.getCertificate(alias).getPublicKey());
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("Unable to load keystore '" + keyStoreProperties.getLocation() + "'",
+                    exception);
+        }
+    }
+}
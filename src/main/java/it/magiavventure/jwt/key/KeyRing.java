@@ -0,0 +1,123 @@
+package it.magiavventure.jwt.key;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.JwtProperties.KeyRingProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Set of the keys accepted to verify tokens, indexed by kid, plus the key used to sign new ones.
+ * Keys are held in an immutable snapshot swapped atomically on reload, so rotating a key never
+ * blocks or fails in-flight verifications. Tokens without kid are verified with the legacy secret.
+ */
+@Slf4j
+public class KeyRing extends LocatorAdapter<Key> implements AutoCloseable {
+
+    private volatile JwtProperties jwtProperties;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService reloadExecutor;
+    private volatile KeySnapshot snapshot;
+    private volatile long lastModified;
+
+    public KeyRing(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.snapshot = KeyLoader.load(jwtProperties);
+        this.lastModified = KeyLoader.lastModified(jwtProperties);
+        this.reloadExecutor = scheduleReload(Optional.ofNullable(jwtProperties.getKeyRing())
+                .map(KeyRingProperties::getReloadInterval)
+                .orElse(null));
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        Key key = findVerificationKey(kid);
+        if (Objects.isNull(key)) {
+            throw new UnsupportedJwtException("No key found for kid '" + kid + "'");
+        }
+        return key;
+    }
+
+    public Key findVerificationKey(String kid) {
+        KeySnapshot current = snapshot;
+        return Objects.isNull(kid) ? current.defaultKey() : current.verificationKeys().get(kid);
+    }
+
+    public SigningKey getSigningKey() {
+        return snapshot.signingKey();
+    }
+
+    public Set<String> getKeyIds() {
+        return snapshot.verificationKeys().keySet();
+    }
+
+    public void addReloadListener(Runnable reloadListener) {
+        reloadListeners.add(reloadListener);
+    }
+
+    public synchronized void reload() {
+        apply(KeyLoader.load(jwtProperties));
+    }
+
+    /**
+     * Reloads the keys from refreshed properties, e.g. a secret rotated in the environment. Invalid properties
+     * throw before anything is swapped, so the previous keys stay in place.
+     */
+    public synchronized void reload(JwtProperties refreshedProperties) {
+        KeySnapshot reloaded = KeyLoader.load(refreshedProperties);
+        jwtProperties = refreshedProperties;
+        apply(reloaded);
+    }
+
+    private void apply(KeySnapshot reloaded) {
+        lastModified = KeyLoader.lastModified(jwtProperties);
+        snapshot = reloaded;
+        log.info("Key ring reloaded - kids: {} - signing kid: {}", reloaded.verificationKeys().keySet(),
+                reloaded.signingKey().keyId());
+        reloadListeners.forEach(Runnable::run);
+    }
+
+    @Override
+    public void close() {
+        if (Objects.nonNull(reloadExecutor)) {
+            reloadExecutor.shutdownNow();
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            if (KeyLoader.lastModified(jwtProperties) != lastModified) {
+                reload();
+            }
+        } catch (RuntimeException exception) {
+            log.error("Unable to reload the key ring, the previous keys are kept", exception);
+        }
+    }
+
+    private ScheduledExecutorService scheduleReload(Duration reloadInterval) {
+        if (Objects.isNull(reloadInterval) || reloadInterval.isZero() || reloadInterval.isNegative()) {
+            return null;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-key-ring-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = reloadInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::reloadIfModified, interval, interval, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+}
@@ -0,0 +1,7 @@
+package it.magiavventure.jwt.key;
+
+import java.security.Key;
+import java.util.Map;
+
+record KeySnapshot(Map<String, Key> verificationKeys, Key defaultKey, SigningKey signingKey) {
+}
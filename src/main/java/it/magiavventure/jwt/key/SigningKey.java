@@ -0,0 +1,9 @@
+package it.magiavventure.jwt.key;
+
+import java.security.Key;
+
+/**
+ * The key used to sign new tokens; the key id is null when tokens are signed with the legacy secret.
+ */
+public record SigningKey(String keyId, Key key) {
+}
@@ -0,0 +1,224 @@
+package it.magiavventure.jwt.matcher;
+
+import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable index of ant-style endpoint rules, compiled once and queried on every request.
+ * Rules are bucketed by http method, literal paths are resolved with a single hash lookup and
+ * patterns are attached to the trie node of their literal prefix, so only the patterns sharing a
+ * prefix with the request path are evaluated. When more rules match, the first one added wins.
+ */
+public final class EndpointIndex<T> {
+
+    private static final String SEPARATOR = "/";
+    private static final String MATCH_ALL = "**";
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    static {
+        PATH_MATCHER.setTrimTokens(false);
+    }
+
+    private final Map<String, Bucket<T>> methodBuckets;
+    private final Bucket<T> anyMethodBucket;
+    private final int size;
+
+    private EndpointIndex(Map<String, Bucket<T>> methodBuckets, Bucket<T> anyMethodBucket, int size) {
+        this.methodBuckets = methodBuckets;
+        this.anyMethodBucket = anyMethodBucket;
+        this.size = size;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public static EndpointIndex<EndpointProperties> ofEndpoints(List<EndpointProperties> endpoints) {
+        Builder<EndpointProperties> builder = builder();
+        Optional.ofNullable(endpoints)
+                .orElse(new ArrayList<>())
+                .forEach(endpoint -> builder.add(endpoint.getMethod(), endpoint.getPath(), endpoint));
+        return builder.build();
+    }
+
+    public boolean matches(HttpServletRequest request) {
+        return Objects.nonNull(find(request));
+    }
+
+    public T find(HttpServletRequest request) {
+        if (size == 0) return null;
+        return find(request.getMethod(), requestPath(request));
+    }
+
+    public boolean matches(String method, String path) {
+        return Objects.nonNull(find(method, path));
+    }
+
+    public T find(String method, String path) {
+        if (size == 0 || Objects.isNull(path)) return null;
+        Rule<T> best = anyMethodBucket.find(path, null);
+        Bucket<T> bucket = Objects.isNull(method) ? null : methodBuckets.get(method);
+        if (Objects.nonNull(bucket)) {
+            best = bucket.find(path, best);
+        }
+        return Objects.isNull(best) ? null : best.value();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static String requestPath(HttpServletRequest request) {
+        String url = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        if (Objects.nonNull(pathInfo)) {
+            return StringUtils.hasLength(url) ? url + pathInfo : pathInfo;
+        }
+        return url;
+    }
+
+    public static final class Builder<T> {
+        private final Map<String, Bucket<T>> methodBuckets = new LinkedHashMap<>();
+        private final Bucket<T> anyMethodBucket = new Bucket<>();
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder<T> add(String method, String pattern, T value) {
+            if (!StringUtils.hasText(pattern)) {
+                throw new IllegalArgumentException("Endpoint path must not be empty");
+            }
+            Bucket<T> bucket = StringUtils.hasText(method)
+                    ? methodBuckets.computeIfAbsent(method.trim().toUpperCase(Locale.ROOT), m -> new Bucket<>())
+                    : anyMethodBucket;
+            bucket.add(new Rule<>(size++, pattern, value));
+            return this;
+        }
+
+        public EndpointIndex<T> build() {
+            methodBuckets.values().forEach(Bucket::freeze);
+            anyMethodBucket.freeze();
+            return new EndpointIndex<>(new HashMap<>(methodBuckets), anyMethodBucket, size);
+        }
+    }
+
+    private record Rule<T>(int order, String pattern, T value) {
+    }
+
+    private static final class Bucket<T> {
+        private final Map<String, Rule<T>> literals = new HashMap<>();
+        private final Node<T> root = new Node<>();
+
+        void add(Rule<T> rule) {
+            String pattern = rule.pattern();
+            if (!PATH_MATCHER.isPattern(pattern)) {
+                literals.putIfAbsent(pattern, rule);
+                return;
+            }
+            String[] segments = StringUtils.tokenizeToStringArray(pattern, SEPARATOR, false, true);
+            Node<T> node = root;
+            int index = 0;
+            while (index < segments.length && !PATH_MATCHER.isPattern(segments[index])) {
+                node = node.childFor(segments[index]);
+                index++;
+            }
+            if (index == segments.length - 1 && MATCH_ALL.equals(segments[index])) {
+                node.prefixRule = Objects.isNull(node.prefixRule) ? rule : node.prefixRule;
+            } else {
+                node.patternList.add(rule);
+            }
+        }
+
+        void freeze() {
+            root.freeze();
+        }
+
+        Rule<T> find(String path, Rule<T> best) {
+            best = better(best, literals.get(path));
+            Node<T> node = root;
+            int position = 0;
+            int length = path.length();
+            while (Objects.nonNull(node)) {
+                best = better(best, node.prefixRule);
+                for (Rule<T> rule : node.patterns) {
+                    if ((Objects.isNull(best) || rule.order() < best.order())
+                            && PATH_MATCHER.match(rule.pattern(), path)) {
+                        best = rule;
+                    }
+                }
+                while (position < length && path.charAt(position) == '/') position++;
+                if (position >= length) break;
+                int end = path.indexOf('/', position);
+                if (end < 0) end = length;
+                node = node.child(path, position, end);
+                position = end;
+            }
+            return best;
+        }
+
+        private static <T> Rule<T> better(Rule<T> current, Rule<T> candidate) {
+            if (Objects.isNull(candidate)) return current;
+            if (Objects.isNull(current)) return candidate;
+            return candidate.order() < current.order() ? candidate : current;
+        }
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> childMap = new HashMap<>();
+        private final List<Rule<T>> patternList = new ArrayList<>();
+        private Rule<T> prefixRule;
+        private Rule<T>[] patterns;
+        private String[] keys;
+        private Node<T>[] children;
+        private int mask;
+
+        Node<T> childFor(String segment) {
+            return childMap.computeIfAbsent(segment, s -> new Node<>());
+        }
+
+        @SuppressWarnings("unchecked")
+        void freeze() {
+            patterns = patternList.toArray(new Rule[0]);
+            int capacity = Integer.highestOneBit(Math.max(1, childMap.size() * 2 - 1)) << 1;
+            keys = new String[capacity];
+            children = new Node[capacity];
+            mask = capacity - 1;
+            childMap.forEach((key, child) -> {
+                int slot = key.hashCode() & mask;
+                while (Objects.nonNull(keys[slot])) slot = (slot + 1) & mask;
+                keys[slot] = key;
+                children[slot] = child;
+                child.freeze();
+            });
+        }
+
+        Node<T> child(String path, int from, int to) {
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int length = to - from;
+            int slot = hash & mask;
+            String key;
+            while (Objects.nonNull(key = keys[slot])) {
+                if (key.length() == length && path.regionMatches(from, key, 0, length)) {
+                    return children[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+    }
+}
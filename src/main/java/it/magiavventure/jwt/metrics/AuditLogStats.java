@@ -0,0 +1,17 @@
+package it.magiavventure.jwt.metrics;
+
+/**
+ * Counters of an audit log, read by {@link JwtMetrics#bindAuditLog(AuditLogStats)}.
+ */
+public interface AuditLogStats {
+
+    long getPublished();
+
+    long getDropped();
+
+    long getWritten();
+
+    long getFailed();
+
+    int getPending();
+}
@@ -0,0 +1,54 @@
+package it.magiavventure.jwt.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Optional;
+
+/**
+ * Instrumentation hooks of the authentication pipeline. The default methods do nothing, so the library
+ * pays no cost when no meter registry is available.
+ */
+public interface JwtMetrics {
+
+    String RESOLVE = "resolve";
+    String VERIFY = "verify";
+    String MAP = "map";
+    String USER_LOOKUP = "user-lookup";
+    String AUTHENTICATED = "authenticated";
+    String PRE_VALIDATION = "pre-validation";
+    String THROTTLED = "throttled";
+
+    JwtMetrics NOOP = new JwtMetrics() {
+    };
+
+    static JwtMetrics from(ObjectProvider<JwtMetrics> jwtMetricsProvider) {
+        return Optional.ofNullable(jwtMetricsProvider)
+                .map(provider -> provider.getIfAvailable(() -> NOOP))
+                .orElse(NOOP);
+    }
+
+    default long start() {
+        return 0L;
+    }
+
+    default void stop(String stage, long start) {
+    }
+
+    default void outcome(String outcome) {
+    }
+
+    default void excluded() {
+    }
+
+    default void rejected(String reason) {
+    }
+
+    default void userLoaded() {
+    }
+
+    default void bindTokenCache(TokenCacheStats tokenCacheStats) {
+    }
+
+    default void bindAuditLog(AuditLogStats auditLogStats) {
+    }
+}
@@ -0,0 +1,147 @@
+package it.magiavventure.jwt.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.magiavventure.jwt.error.JwtException;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class MicrometerJwtMetrics implements JwtMetrics {
+
+    public static final String STAGE_METRIC = "magiavventure.jwt.stage";
+    public static final String AUTHENTICATION_METRIC = "magiavventure.jwt.authentication";
+    public static final String EXCLUDED_METRIC = "magiavventure.jwt.excluded";
+    public static final String REJECTED_METRIC = "magiavventure.jwt.rejected";
+    public static final String TOKEN_CACHE_METRIC = "magiavventure.jwt.token.cache";
+    public static final String USER_LOADS_METRIC = "magiavventure.jwt.user.loads";
+    public static final String USER_CACHE_HIT_RATIO_METRIC = "magiavventure.jwt.user.cache.hit.ratio";
+    public static final String AUDIT_EVENTS_METRIC = "magiavventure.jwt.audit.events";
+    public static final String AUDIT_PENDING_METRIC = "magiavventure.jwt.audit.pending";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> stageTimers;
+    private final Map<String, Counter> outcomeCounters;
+    private final Counter excludedCounter;
+    private final Map<String, Counter> rejectedCounters;
+    private final Counter userLoadsCounter;
+
+    public MicrometerJwtMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.stageTimers = Stream.of(RESOLVE, VERIFY, MAP, USER_LOOKUP)
+                .collect(Collectors.toUnmodifiableMap(stage -> stage, this::stageTimer));
+        this.outcomeCounters = new ConcurrentHashMap<>();
+        Stream.of(AUTHENTICATED, JwtException.NOT_AUTHENTICATED, JwtException.ACCESS_DENIED, JwtException.OWNERSHIP)
+                .forEach(outcome -> outcomeCounters.put(outcome, outcomeCounter(outcome)));
+        this.excludedCounter = Counter.builder(EXCLUDED_METRIC)
+                .description("Requests skipped by the authentication filter because of an excluded endpoint")
+                .register(meterRegistry);
+        this.rejectedCounters = Stream.of(PRE_VALIDATION, THROTTLED)
+                .collect(Collectors.toUnmodifiableMap(reason -> reason, this::rejectedCounter));
+        this.userLoadsCounter = Counter.builder(USER_LOADS_METRIC)
+                .description("User lookups that reached the repository")
+                .register(meterRegistry);
+        Gauge.builder(USER_CACHE_HIT_RATIO_METRIC, this, MicrometerJwtMetrics::userCacheHitRatio)
+                .description("Ratio of user lookups served by the user cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long start() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void stop(String stage, long start) {
+        Timer timer = stageTimers.get(stage);
+        if (Objects.nonNull(timer)) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void outcome(String outcome) {
+        outcomeCounters.computeIfAbsent(outcome, this::outcomeCounter).increment();
+    }
+
+    @Override
+    public void excluded() {
+        excludedCounter.increment();
+    }
+
+    @Override
+    public void rejected(String reason) {
+        Counter counter = rejectedCounters.get(reason);
+        if (Objects.nonNull(counter)) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void userLoaded() {
+        userLoadsCounter.increment();
+    }
+
+    @Override
+    public void bindTokenCache(TokenCacheStats tokenCacheStats) {
+        FunctionCounter.builder(TOKEN_CACHE_METRIC, tokenCacheStats, TokenCacheStats::getHits)
+                .description("Verified token cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder(TOKEN_CACHE_METRIC, tokenCacheStats, TokenCacheStats::getMisses)
+                .description("Verified token cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void bindAuditLog(AuditLogStats auditLogStats) {
+        Stream.<Map.Entry<String, ToDoubleFunction<AuditLogStats>>>of(
+                        Map.entry("published", AuditLogStats::getPublished),
+                        Map.entry("dropped", AuditLogStats::getDropped),
+                        Map.entry("written", AuditLogStats::getWritten),
+                        Map.entry("failed", AuditLogStats::getFailed))
+                .forEach(result -> FunctionCounter.builder(AUDIT_EVENTS_METRIC, auditLogStats, result.getValue())
+                        .description("Audit events, tagged by what happened to them")
+                        .tag("result", result.getKey())
+                        .register(meterRegistry));
+        Gauge.builder(AUDIT_PENDING_METRIC, auditLogStats, AuditLogStats::getPending)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    private double userCacheHitRatio() {
+        long lookups = stageTimers.get(USER_LOOKUP).count();
+        if (lookups == 0) return Double.NaN;
+        return Math.max(0d, 1d - userLoadsCounter.count() / lookups);
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder(STAGE_METRIC)
+                .description("Time spent in each stage of the authentication pipeline")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(String reason) {
+        return Counter.builder(REJECTED_METRIC)
+                .description("Tokens rejected before verification, tagged by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private Counter outcomeCounter(String outcome) {
+        return Counter.builder(AUTHENTICATION_METRIC)
+                .description("Authentication outcomes, tagged by jwt error code")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
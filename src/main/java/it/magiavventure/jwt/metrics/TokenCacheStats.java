@@ -0,0 +1,11 @@
+package it.magiavventure.jwt.metrics;
+
+/**
+ * Counters of a token cache, read by {@link JwtMetrics#bindTokenCache(TokenCacheStats)}.
+ */
+public interface TokenCacheStats {
+
+    long getHits();
+
+    long getMisses();
+}
@@ -0,0 +1,61 @@
+package it.magiavventure.jwt.revocation;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counting Bloom filter over token ids: a negative answer is exact, so the revocation set is only looked up
+ * for the few ids that may have been revoked. Counters allow removing the ids of expired tokens.
+ */
+final class CountingBloomFilter {
+
+    private static final int HASHES = 4;
+
+    private final AtomicIntegerArray counters;
+    private final int mask;
+
+    CountingBloomFilter(int expectedInsertions) {
+        int capacity = Integer.highestOneBit(Math.max(64, expectedInsertions * 16 - 1)) << 1;
+        this.counters = new AtomicIntegerArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < HASHES; i++) {
+            counters.incrementAndGet(index(hash, i));
+        }
+    }
+
+    void remove(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < HASHES; i++) {
+            counters.decrementAndGet(index(hash, i));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < HASHES; i++) {
+            if (counters.get(index(hash, i)) <= 0) return false;
+        }
+        return true;
+    }
+
+    private int index(long hash, int i) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        return (first + i * second) & mask;
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
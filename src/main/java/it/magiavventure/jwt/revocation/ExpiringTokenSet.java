@@ -0,0 +1,83 @@
+package it.magiavventure.jwt.revocation;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded set of token ids ({@code jti}) kept until the expiration of their token. Ids are dropped by a
+ * {@link TimingWheel} on a background thread, so adding and checking an id never scan the set; once the set
+ * holds {@code maxSize} live ids further ids are refused until some of them expire.
+ */
+public final class ExpiringTokenSet implements AutoCloseable {
+
+    private final Map<String, Long> tokenIds = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expirations;
+    private final String threadName;
+    private final int maxSize;
+    private final long tickMillis;
+    private ScheduledExecutorService expirationExecutor;
+
+    public ExpiringTokenSet(String threadName, int maxSize, long tickMillis) {
+        this.threadName = threadName;
+        this.maxSize = maxSize;
+        this.tickMillis = Math.max(1L, tickMillis);
+        this.expirations = new TimingWheel<>(System.currentTimeMillis(), this.tickMillis);
+    }
+
+    /**
+     * @return true when the id was not in the set and has been added, false when it was already there, the
+     * token is already expired or the set is full
+     */
+    public boolean add(String tokenId, Date expiration) {
+        if (Objects.isNull(tokenId) || Objects.isNull(expiration)) return false;
+        long expiresAt = expiration.getTime();
+        synchronized (expirations) {
+            if (tokenIds.size() >= maxSize || tokenIds.containsKey(tokenId)
+                    || !expirations.schedule(tokenId, expiresAt)) {
+                return false;
+            }
+            tokenIds.put(tokenId, expiresAt);
+            startExpiration();
+        }
+        return true;
+    }
+
+    public boolean contains(String tokenId) {
+        return Objects.nonNull(tokenId) && tokenIds.containsKey(tokenId);
+    }
+
+    public int size() {
+        return tokenIds.size();
+    }
+
+    void expire(long nowMillis) {
+        synchronized (expirations) {
+            expirations.advance(nowMillis, tokenIds::remove);
+        }
+    }
+
+    private void startExpiration() {
+        if (Objects.nonNull(expirationExecutor)) return;
+        expirationExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        expirationExecutor.scheduleWithFixedDelay(() -> expire(System.currentTimeMillis()),
+                tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        synchronized (expirations) {
+            if (Objects.nonNull(expirationExecutor)) {
+                expirationExecutor.shutdownNow();
+            }
+        }
+    }
+}
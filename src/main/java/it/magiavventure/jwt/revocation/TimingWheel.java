@@ -0,0 +1,93 @@
+package it.magiavventure.jwt.revocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@value #LEVELS} levels of {@value #WHEEL_SIZE} buckets, each level ticking
+ * {@value #WHEEL_SIZE} times slower than the one below. Scheduling and expiring an entry cost O(1) amortized
+ * whatever the number of entries; entries beyond the wheel range are parked in the last bucket and rescheduled
+ * when it is cascaded. Not thread safe, callers synchronize.
+ */
+final class TimingWheel<T> {
+
+    static final int WHEEL_SIZE = 64;
+    static final int LEVELS = 4;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final long startMillis;
+    private final long tickMillis;
+    private final List<List<Entry<T>>> buckets = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long startMillis, long tickMillis) {
+        this.startMillis = startMillis;
+        this.tickMillis = Math.max(1L, tickMillis);
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    boolean schedule(T value, long expiresAtMillis) {
+        long deadline = Math.max(0L, -Math.floorDiv(startMillis - expiresAtMillis, tickMillis));
+        if (deadline <= currentTick) return false;
+        place(new Entry<>(value, deadline));
+        size++;
+        return true;
+    }
+
+    void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            int level = 0;
+            while (level + 1 < LEVELS && (currentTick & ((1L << (WHEEL_BITS * (level + 1))) - 1)) == 0) {
+                level++;
+            }
+            for (; level > 0; level--) {
+                List<Entry<T>> bucket = bucket(level, currentTick);
+                List<Entry<T>> cascaded = new ArrayList<>(bucket);
+                bucket.clear();
+                cascaded.forEach(entry -> {
+                    if (entry.deadline() <= currentTick) {
+                        size--;
+                        expired.accept(entry.value());
+                    } else {
+                        place(entry);
+                    }
+                });
+            }
+            List<Entry<T>> bucket = bucket(0, currentTick);
+            if (bucket.isEmpty()) continue;
+            size -= bucket.size();
+            bucket.forEach(entry -> expired.accept(entry.value()));
+            bucket.clear();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.deadline() - currentTick;
+        int level = 0;
+        while (level + 1 < LEVELS && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        long range = 1L << (WHEEL_BITS * LEVELS);
+        long slotTick = delta >= range ? currentTick + range - 1 : entry.deadline();
+        bucket(level, slotTick).add(entry);
+    }
+
+    private List<Entry<T>> bucket(int level, long tick) {
+        int index = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        return buckets.get(level * WHEEL_SIZE + index);
+    }
+
+    private record Entry<T>(T value, long deadline) {
+    }
+}
@@ -0,0 +1,105 @@
+package it.magiavventure.jwt.revocation;
+
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.JwtProperties.RevocationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory set of the revoked token ids ({@code jti}). Every id is dropped by a {@link TimingWheel} once
+ * the token it belongs to is expired, so the store never holds more than the revoked live tokens; an optional
+ * counting Bloom filter answers the common "not revoked" case without touching the set.
+ */
+@Slf4j
+@Component
+public class TokenRevocationStore implements DisposableBean {
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expirations;
+    private final CountingBloomFilter bloomFilter;
+    private final long tickMillis;
+    private ScheduledExecutorService expirationExecutor;
+
+    public TokenRevocationStore() {
+        this(null);
+    }
+
+    @Autowired
+    public TokenRevocationStore(JwtProperties jwtProperties) {
+        RevocationProperties revocationProperties = Optional.ofNullable(jwtProperties)
+                .map(JwtProperties::getRevocation)
+                .orElseGet(RevocationProperties::new);
+        this.tickMillis = Optional.ofNullable(revocationProperties.getTickDuration())
+                .map(Duration::toMillis)
+                .orElse(1000L);
+        this.expirations = new TimingWheel<>(System.currentTimeMillis(), tickMillis);
+        this.bloomFilter = Boolean.TRUE.equals(revocationProperties.getBloomFilter())
+                ? new CountingBloomFilter(Optional.ofNullable(revocationProperties.getExpectedRevocations())
+                        .orElse(10000))
+                : null;
+    }
+
+    public void revoke(String tokenId, Date expiration) {
+        if (Objects.isNull(tokenId) || Objects.isNull(expiration)) return;
+        long expiresAt = expiration.getTime();
+        synchronized (expirations) {
+            if (revokedTokens.containsKey(tokenId) || !expirations.schedule(tokenId, expiresAt)) return;
+            if (Objects.nonNull(bloomFilter)) bloomFilter.add(tokenId);
+            revokedTokens.put(tokenId, expiresAt);
+            startExpiration();
+        }
+        log.info("Revoked token '{}' until {}", tokenId, expiration);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (Objects.isNull(tokenId) || revokedTokens.isEmpty()) return false;
+        if (Objects.nonNull(bloomFilter) && !bloomFilter.mightContain(tokenId)) return false;
+        return revokedTokens.containsKey(tokenId);
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    void expire(long nowMillis) {
+        synchronized (expirations) {
+            expirations.advance(nowMillis, tokenId -> {
+                if (Objects.nonNull(revokedTokens.remove(tokenId)) && Objects.nonNull(bloomFilter)) {
+                    bloomFilter.remove(tokenId);
+                }
+            });
+        }
+    }
+
+    private void startExpiration() {
+        if (Objects.nonNull(expirationExecutor)) return;
+        expirationExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-revocation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expirationExecutor.scheduleWithFixedDelay(() -> expire(System.currentTimeMillis()),
+                tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (expirations) {
+            if (Objects.nonNull(expirationExecutor)) {
+                expirationExecutor.shutdownNow();
+            }
+        }
+    }
+}
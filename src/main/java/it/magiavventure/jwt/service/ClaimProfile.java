@@ -0,0 +1,111 @@
+package it.magiavventure.jwt.service;
+
+import io.jsonwebtoken.Claims;
+import it.magiavventure.jwt.config.JwtProperties.ClaimProfileProperties;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Mapping between the {@link it.magiavventure.mongo.model.User} fields and the token claims, applied
+ * symmetrically when a token is built and when it is parsed. When the profile is disabled the whole user is
+ * written in the claims; when enabled only the whitelisted fields are written, under their short claim name,
+ * the id travels only as subject and authorities are joined in a single string, so an authority containing the
+ * separator is rejected.
+ */
+public class ClaimProfile {
+
+    static final String ID_FIELD = "id";
+    static final String AUTHORITIES_FIELD = "authorities";
+    private static final String AUTHORITIES_SEPARATOR = ",";
+    private static final Map<String, String> DEFAULT_CLAIMS = Map.of("name", "n", AUTHORITIES_FIELD, "a");
+    private static final Set<String> RESERVED_CLAIMS = Set.of(Claims.ISSUER, Claims.SUBJECT, Claims.AUDIENCE,
+            Claims.EXPIRATION, Claims.NOT_BEFORE, Claims.ISSUED_AT, Claims.ID, JwtService.SECURITY_VERSION_CLAIM);
+
+    private final boolean enabled;
+    private final boolean compactAuthorities;
+    private final Map<String, String> fieldToClaim;
+    private final Map<String, String> claimToField;
+
+    public ClaimProfile(ClaimProfileProperties claimProfileProperties) {
+        ClaimProfileProperties properties = Optional.ofNullable(claimProfileProperties)
+                .orElseGet(ClaimProfileProperties::new);
+        this.enabled = Boolean.TRUE.equals(properties.getEnabled());
+        this.compactAuthorities = !Boolean.FALSE.equals(properties.getCompactAuthorities());
+        Map<String, String> claims = Optional.ofNullable(properties.getClaims())
+                .filter(map -> !map.isEmpty())
+                .orElse(DEFAULT_CLAIMS);
+        this.fieldToClaim = new LinkedHashMap<>();
+        this.claimToField = new HashMap<>();
+        claims.forEach((field, claim) -> {
+            String claimName = StringUtils.hasText(claim) ? claim : field;
+            if (ID_FIELD.equals(field)) return;
+            if (RESERVED_CLAIMS.contains(claimName) || Objects.nonNull(claimToField.putIfAbsent(claimName, field))) {
+                throw new IllegalStateException("Claim name '" + claimName + "' of field '" + field
+                        + "' is reserved or duplicated");
+            }
+            fieldToClaim.put(field, claimName);
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    boolean isCompactAuthorities() {
+        return enabled && compactAuthorities;
+    }
+
+    String fieldFor(String claim) {
+        if (!enabled) return claim;
+        return Claims.SUBJECT.equals(claim) ? ID_FIELD : claimToField.get(claim);
+    }
+
+    public Map<String, Object> toClaims(Map<String, Object> userFields) {
+        if (!enabled) return userFields;
+        Map<String, Object> claims = new LinkedHashMap<>();
+        fieldToClaim.forEach((field, claim) -> {
+            Object value = userFields.get(field);
+            if (Objects.isNull(value)) return;
+            if (compactAuthorities && AUTHORITIES_FIELD.equals(field) && value instanceof Collection<?> authorities) {
+                value = joinAuthorities(authorities);
+            }
+            claims.put(claim, value);
+        });
+        return claims;
+    }
+
+    private static String joinAuthorities(Collection<?> authorities) {
+        List<String> values = authorities.stream().map(String::valueOf).toList();
+        values.stream()
+                .filter(authority -> authority.contains(AUTHORITIES_SEPARATOR))
+                .findFirst()
+                .ifPresent(authority -> {
+                    throw new IllegalArgumentException("Authority '" + authority + "' contains the '"
+                            + AUTHORITIES_SEPARATOR + "' separator of the compact authorities");
+                });
+        return String.join(AUTHORITIES_SEPARATOR, values);
+    }
+
+    public Map<String, Object> toUserFields(Claims claims) {
+        if (!enabled) return claims;
+        Map<String, Object> userFields = new HashMap<>();
+        userFields.put(ID_FIELD, claims.getSubject());
+        claims.forEach((claim, value) -> {
+            String field = claimToField.get(claim);
+            if (Objects.isNull(field)) return;
+            if (AUTHORITIES_FIELD.equals(field) && value instanceof String authorities) {
+                value = authorities.isEmpty() ? List.of() : List.of(authorities.split(AUTHORITIES_SEPARATOR));
+            }
+            userFields.put(field, value);
+        });
+        return userFields;
+    }
+}
@@ -0,0 +1,107 @@
+package it.magiavventure.jwt.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded map whose entries carry their own expiration. Expired entries are dropped on read and by a clock hand
+ * that visits a couple of entries on every write; at capacity the hand samples a few entries and evicts the
+ * expired ones or, failing that, the one expiring first, so a write never costs more than a constant number of
+ * steps whatever the size.
+ */
+final class ExpiringCache<K, V> {
+
+    private static final int SWEEP_STEPS = 2;
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock handLock = new ReentrantLock();
+    private final int maxSize;
+    private Iterator<Map.Entry<K, Entry<V>>> hand;
+
+    ExpiringCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    V get(K key, long now) {
+        Entry<V> entry = entries.get(key);
+        if (Objects.isNull(entry)) return null;
+        if (entry.expiresAt() <= now) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    void put(K key, V value, long expiresAt, long now) {
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict(now);
+        } else {
+            sweep(now);
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    void remove(K key) {
+        entries.remove(key);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void sweep(long now) {
+        if (!handLock.tryLock()) return;
+        try {
+            for (int i = 0; i < SWEEP_STEPS; i++) {
+                Map.Entry<K, Entry<V>> candidate = advance();
+                if (Objects.isNull(candidate)) return;
+                if (candidate.getValue().expiresAt() <= now) {
+                    entries.remove(candidate.getKey(), candidate.getValue());
+                }
+            }
+        } finally {
+            handLock.unlock();
+        }
+    }
+
+    private void evict(long now) {
+        handLock.lock();
+        try {
+            Map.Entry<K, Entry<V>> firstExpiring = null;
+            for (int i = 0; i < EVICTION_SAMPLE && entries.size() >= maxSize; i++) {
+                Map.Entry<K, Entry<V>> candidate = advance();
+                if (Objects.isNull(candidate)) return;
+                if (candidate.getValue().expiresAt() <= now) {
+                    entries.remove(candidate.getKey(), candidate.getValue());
+                } else if (Objects.isNull(firstExpiring)
+                        || candidate.getValue().expiresAt() < firstExpiring.getValue().expiresAt()) {
+                    firstExpiring = candidate;
+                }
+            }
+            if (entries.size() >= maxSize && Objects.nonNull(firstExpiring)) {
+                entries.remove(firstExpiring.getKey(), firstExpiring.getValue());
+            }
+        } finally {
+            handLock.unlock();
+        }
+    }
+
+    private Map.Entry<K, Entry<V>> advance() {
+        if (Objects.isNull(hand) || !hand.hasNext()) {
+            hand = entries.entrySet().iterator();
+            if (!hand.hasNext()) return null;
+        }
+        return hand.next();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,250 @@
+package it.magiavventure.jwt.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.error.JwtException;
+import it.magiavventure.jwt.key.KeyRing;
+import it.magiavventure.mongo.model.Category;
+import it.magiavventure.mongo.model.User;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Verifier of the HMAC signed tokens issued by the library, working on per-thread buffers and a per-thread
+ * initialized {@link Mac} and binding the payload straight into the {@link User} with a streaming parser.
+ * Returns {@code null} for anything it does not fully understand (unknown header, non HMAC key, not before
+ * claim, malformed json), leaving the token to the jjwt parser; a wrong signature or an expired token is
+ * rejected right away.
+ */
+final class FastTokenVerifier {
+
+    private static final int MAX_TOKEN_LENGTH = 16384;
+    private static final String AUTHORITIES_SEPARATOR = ",";
+    private static final int[] BASE64_URL = new int[128];
+    private static final Map<String, HmacAlgorithm> ALGORITHMS = Map.of(
+            "HS256", new HmacAlgorithm("HmacSHA256", 32),
+            "HS384", new HmacAlgorithm("HmacSHA384", 48),
+            "HS512", new HmacAlgorithm("HmacSHA512", 64));
+
+    static {
+        Arrays.fill(BASE64_URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private final KeyRing keyRing;
+    private final ClaimProfile claimProfile;
+    private final ObjectMapper objectMapper;
+    private final JavaType categoriesType;
+    private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+    FastTokenVerifier(KeyRing keyRing, ClaimProfile claimProfile, ObjectMapper objectMapper) {
+        this.keyRing = keyRing;
+        this.claimProfile = claimProfile;
+        this.objectMapper = objectMapper;
+        this.categoriesType = objectMapper.getTypeFactory().constructCollectionType(List.class, Category.class);
+    }
+
+    VerifiedToken verify(String jwt) {
+        int length = jwt.length();
+        int firstDot = jwt.indexOf('.');
+        int lastDot = jwt.lastIndexOf('.');
+        if (length > MAX_TOKEN_LENGTH || firstDot <= 0 || lastDot == firstDot || lastDot == length - 1) {
+            return null;
+        }
+        Buffers current = buffers.get();
+        try {
+            Mac mac = resolveMac(jwt, firstDot, current);
+            if (Objects.isNull(mac) || !verifySignature(jwt, lastDot, mac, current)) return null;
+            int payloadLength = decode(jwt, firstDot + 1, lastDot, current);
+            if (payloadLength < 0) return null;
+            return bind(current.decoded, payloadLength);
+        } catch (IOException | IllegalArgumentException | GeneralSecurityException exception) {
+            return null;
+        }
+    }
+
+    private Mac resolveMac(String jwt, int firstDot, Buffers current) throws IOException, GeneralSecurityException {
+        int headerLength = decode(jwt, 0, firstDot, current);
+        if (headerLength < 0) return null;
+        String algorithm = null;
+        String kid = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(current.decoded, 0, headerLength)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                if (parser.nextToken() != JsonToken.VALUE_STRING) return null;
+                switch (name) {
+                    case "alg" -> algorithm = parser.getText();
+                    case "kid" -> kid = parser.getText();
+                    case "typ" -> {
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+        }
+        HmacAlgorithm hmacAlgorithm = Objects.isNull(algorithm) ? null : ALGORITHMS.get(algorithm);
+        Key key = keyRing.findVerificationKey(kid);
+        if (Objects.isNull(hmacAlgorithm) || !(key instanceof SecretKey)) return null;
+        MacSlot slot = current.macs.computeIfAbsent(hmacAlgorithm.jcaName(), name -> new MacSlot());
+        if (slot.key != key) {
+            byte[] encoded = key.getEncoded();
+            if (Objects.isNull(encoded) || encoded.length < hmacAlgorithm.minKeyBytes()) return null;
+            slot.mac = Objects.isNull(slot.mac) ? Mac.getInstance(hmacAlgorithm.jcaName()) : slot.mac;
+            slot.mac.init(key);
+            slot.key = key;
+        }
+        return slot.mac;
+    }
+
+    private boolean verifySignature(String jwt, int lastDot, Mac mac, Buffers current)
+            throws GeneralSecurityException {
+        byte[] signingInput = current.ensureSigningInput(lastDot);
+        for (int i = 0; i < lastDot; i++) {
+            char c = jwt.charAt(i);
+            if (c > 127) return false;
+            signingInput[i] = (byte) c;
+        }
+        mac.update(signingInput, 0, lastDot);
+        int macLength = mac.getMacLength();
+        mac.doFinal(current.mac, 0);
+        int signatureLength = decode(jwt, lastDot + 1, jwt.length(), current);
+        if (signatureLength < 0) return false;
+        int difference = signatureLength ^ macLength;
+        for (int i = 0; i < macLength; i++) {
+            difference |= current.mac[i] ^ current.decoded[i];
+        }
+        if (difference != 0) {
+            throw MagiavventureException.of(JwtException.NOT_AUTHENTICATED);
+        }
+        return true;
+    }
+
+    private VerifiedToken bind(byte[] payload, int payloadLength) throws IOException {
+        User.UserBuilder user = User.builder();
+        Long expiration = null;
+        long securityVersion = 0L;
+        String tokenId = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload, 0, payloadLength)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String claim = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (claim) {
+                    case Claims.EXPIRATION -> expiration = parser.getLongValue();
+                    case Claims.NOT_BEFORE -> {
+                        return null;
+                    }
+                    case JwtService.SECURITY_VERSION_CLAIM -> securityVersion = parser.getLongValue();
+                    case Claims.ID -> tokenId = parser.getText();
+                    default -> {
+                        if (!bindField(user, claimProfile.fieldFor(claim), token, parser)) {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+        }
+        if (Objects.isNull(expiration)) return null;
+        if (System.currentTimeMillis() > expiration * 1000L) {
+            throw MagiavventureException.of(JwtException.NOT_AUTHENTICATED);
+        }
+        return new VerifiedToken(user.build(), new Date(expiration * 1000L), securityVersion, tokenId);
+    }
+
+    private boolean bindField(User.UserBuilder user, String field, JsonToken token, JsonParser parser)
+            throws IOException {
+        if (Objects.isNull(field) || token == JsonToken.VALUE_NULL) return false;
+        switch (field) {
+            case ClaimProfile.ID_FIELD -> user.id(UUID.fromString(parser.getText()));
+            case "name" -> user.name(parser.getText());
+            case ClaimProfile.AUTHORITIES_FIELD -> user.authorities(readAuthorities(token, parser));
+            case "preferredCategories" -> user.preferredCategories(objectMapper.readValue(parser, categoriesType));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> readAuthorities(JsonToken token, JsonParser parser) throws IOException {
+        if (token == JsonToken.VALUE_STRING && claimProfile.isCompactAuthorities()) {
+            String authorities = parser.getText();
+            return authorities.isEmpty() ? List.of() : List.of(authorities.split(AUTHORITIES_SEPARATOR));
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Unexpected authorities token " + token);
+        }
+        List<String> authorities = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            authorities.add(parser.getText());
+        }
+        return authorities;
+    }
+
+    private static int decode(String source, int from, int to, Buffers current) {
+        int length = to - from;
+        if (length % 4 == 1) return -1;
+        byte[] target = current.ensureDecoded(length * 3 / 4 + 1);
+        int accumulator = 0;
+        int bits = 0;
+        int position = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64_URL[c] : -1;
+            if (value < 0) return -1;
+            accumulator = (accumulator << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                target[position++] = (byte) (accumulator >> bits);
+            }
+        }
+        return position;
+    }
+
+    private record HmacAlgorithm(String jcaName, int minKeyBytes) {
+    }
+
+    private static final class MacSlot {
+        private Mac mac;
+        private Key key;
+    }
+
+    private static final class Buffers {
+        private final Map<String, MacSlot> macs = new HashMap<>();
+        private final byte[] mac = new byte[64];
+        private byte[] decoded = new byte[1024];
+        private byte[] signingInput = new byte[1024];
+
+        byte[] ensureDecoded(int length) {
+            if (decoded.length < length) decoded = new byte[Math.max(length, decoded.length * 2)];
+            return decoded;
+        }
+
+        byte[] ensureSigningInput(int length) {
+            if (signingInput.length < length) signingInput = new byte[Math.max(length, signingInput.length * 2)];
+            return signingInput;
+        }
+    }
+}
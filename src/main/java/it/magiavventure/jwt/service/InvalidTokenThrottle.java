@@ -0,0 +1,63 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.jwt.config.JwtProperties.InvalidTokenThrottleProperties;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Striped token buckets of the invalid tokens sent by each client, kept as the theoretical arrival time of the
+ * next invalid token (GCRA), so a bucket is a single long updated with compare-and-set. Clients sharing a stripe
+ * share the bucket; once a client used up the burst its requests are rejected until the bucket refills.
+ * The filters key clients on the request remote address, so behind a proxy the forwarded headers must be resolved
+ * first (e.g. {@code server.forward-headers-strategy}) or every client shares the proxy bucket.
+ */
+final class InvalidTokenThrottle {
+
+    private final boolean enabled;
+    private final AtomicLongArray arrivals;
+    private final int mask;
+    private final long interval;
+    private final long tolerance;
+    private final long origin = System.nanoTime();
+
+    InvalidTokenThrottle(InvalidTokenThrottleProperties invalidTokenThrottleProperties) {
+        InvalidTokenThrottleProperties properties = Optional.ofNullable(invalidTokenThrottleProperties)
+                .orElseGet(InvalidTokenThrottleProperties::new);
+        int stripes = Integer.highestOneBit(Math.max(2, Optional.ofNullable(properties.getStripes()).orElse(1024))
+                * 2 - 1);
+        this.enabled = Boolean.TRUE.equals(properties.getEnabled());
+        this.arrivals = new AtomicLongArray(enabled ? stripes : 1);
+        this.mask = (enabled ? stripes : 1) - 1;
+        this.interval = Math.max(1L, Optional.ofNullable(properties.getRefillPeriod())
+                .map(Duration::toNanos)
+                .orElse(1_000_000_000L));
+        this.tolerance = interval * Math.max(0, Optional.ofNullable(properties.getBurst()).orElse(20) - 1);
+    }
+
+    boolean isThrottled(String client) {
+        if (!enabled || Objects.isNull(client)) return false;
+        return arrivals.get(stripe(client)) - now() > tolerance;
+    }
+
+    void recordInvalid(String client) {
+        if (!enabled || Objects.isNull(client)) return;
+        int stripe = stripe(client);
+        long now = now();
+        long current;
+        do {
+            current = arrivals.get(stripe);
+        } while (!arrivals.compareAndSet(stripe, current, Math.max(current, now) + interval));
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    private int stripe(String client) {
+        int hash = client.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
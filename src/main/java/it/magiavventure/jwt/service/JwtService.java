@@ -4,95 +4,465 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.audit.AuditLog;
 import it.magiavventure.jwt.config.JwtProperties;
 import it.magiavventure.jwt.error.JwtException;
+import it.magiavventure.jwt.key.KeyRing;
+import it.magiavventure.jwt.key.SigningKey;
+import it.magiavventure.jwt.metrics.JwtMetrics;
+import it.magiavventure.jwt.revocation.ExpiringTokenSet;
+import it.magiavventure.jwt.revocation.TokenRevocationStore;
 import it.magiavventure.mongo.entity.EUser;
 import it.magiavventure.mongo.model.User;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
+@Slf4j
 @Component
-public class JwtService {
+public class JwtService implements DisposableBean {
+    public static final String SECURITY_VERSION_CLAIM = "sv";
+    private static final int MAX_RENEWED_TOKENS = 10000;
+
     private final JwtParser jwtParser;
+    private final KeyRing keyRing;
     private final JwtProperties jwtProperties;
     private final ObjectMapper objectMapper;
     private final UserJwtService userJwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtMetrics jwtMetrics;
+    private final AuditLog auditLog;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final ClaimProfile claimProfile;
+    private final FastTokenVerifier fastTokenVerifier;
+    private final TokenPreValidator tokenPreValidator;
+    private final InvalidTokenThrottle invalidTokenThrottle;
+    private final TenantRegistry tenantRegistry;
+    private final int batchParallelism;
+    private volatile ForkJoinPool batchPool;
+    private final ExpiringTokenSet renewedTokens = new ExpiringTokenSet("jwt-renewal-expiry", MAX_RENEWED_TOKENS,
+            1000L);
+    private final int batchParallelThreshold;
 
     public JwtService(JwtProperties jwtProperties, UserJwtService userJwtService) {
+        this(jwtProperties, userJwtService, null, null, null);
+    }
+
+    public JwtService(JwtProperties jwtProperties, UserJwtService userJwtService,
+                      ObjectProvider<JwtMetrics> jwtMetricsProvider,
+                      SecurityVersionRegistry securityVersionRegistry,
+                      TokenRevocationStore tokenRevocationStore) {
+        this(jwtProperties, userJwtService, jwtMetricsProvider, securityVersionRegistry, tokenRevocationStore,
+                null);
+    }
+
+    @Autowired
+    public JwtService(JwtProperties jwtProperties, UserJwtService userJwtService,
+                      ObjectProvider<JwtMetrics> jwtMetricsProvider,
+                      SecurityVersionRegistry securityVersionRegistry,
+                      TokenRevocationStore tokenRevocationStore,
+                      ObjectProvider<AuditLog> auditLogProvider) {
         this.userJwtService = userJwtService;
+        this.securityVersionRegistry = Optional.ofNullable(securityVersionRegistry)
+                .orElseGet(SecurityVersionRegistry::new);
+        this.tokenRevocationStore = Optional.ofNullable(tokenRevocationStore)
+                .orElseGet(TokenRevocationStore::new);
         this.jwtProperties = jwtProperties;
+        this.keyRing = new KeyRing(jwtProperties);
         this.jwtParser = Jwts
                 .parser()
-                .verifyWith(createSecretKey(jwtProperties.getSecret()))
+                .keyLocator(keyRing)
                 .build();
         this.objectMapper = new ObjectMapper()
                 .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.verifiedTokenCache = new VerifiedTokenCache(jwtProperties.getTokenCache());
+        this.claimProfile = new ClaimProfile(jwtProperties.getClaimProfile());
+        this.fastTokenVerifier = Boolean.TRUE.equals(jwtProperties.getFastVerifier())
+                ? new FastTokenVerifier(keyRing, claimProfile, objectMapper)
+                : null;
+        this.tokenPreValidator = new TokenPreValidator(jwtProperties.getPreValidation(), objectMapper);
+        this.invalidTokenThrottle = new InvalidTokenThrottle(jwtProperties.getInvalidTokenThrottle());
+        this.tenantRegistry = new TenantRegistry(jwtProperties, objectMapper.getFactory());
+        JwtProperties.BatchProperties batchProperties = Optional.ofNullable(jwtProperties.getBatch())
+                .orElseGet(JwtProperties.BatchProperties::new);
+        this.batchParallelism = Math.max(1, Optional.ofNullable(batchProperties.getParallelism()).orElse(1));
+        this.batchParallelThreshold = Optional.ofNullable(batchProperties.getParallelThreshold())
+                .orElse(Integer.MAX_VALUE);
+        this.jwtMetrics = JwtMetrics.from(jwtMetricsProvider);
+        this.auditLog = AuditLog.from(auditLogProvider);
+        this.jwtMetrics.bindTokenCache(verifiedTokenCache);
+        this.keyRing.addReloadListener(verifiedTokenCache::invalidateAll);
+        this.tenantRegistry.addReloadListener(verifiedTokenCache::invalidateAll);
     }
 
     public String buildJwt(User user) {
+        return buildJwt(user, prepareIssuance());
+    }
+
+    public String buildJwt(User user, String tenant) {
+        return buildJwt(user, prepareIssuance(tenantRegistry.get(tenant)));
+    }
+
+    public Set<String> getTenants() {
+        return tenantRegistry.getIssuers();
+    }
+
+    public List<String> buildJwts(Collection<User> users) {
+        Issuance issuance = prepareIssuance();
+        if (users.size() < batchParallelThreshold || batchParallelism == 1) {
+            return users.stream().map(user -> buildJwt(user, issuance)).toList();
+        }
+        try {
+            return batchPool().submit(() -> users.parallelStream().map(user -> buildJwt(user, issuance)).toList())
+                    .get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    /**
+     * Builds a token for every user of the stream. Issued-at, expiration and signing key are taken when the
+     * stream is consumed, not when it is created, and are shared by all the tokens of the stream.
+     */
+    public Stream<String> buildJwts(Stream<User> users) {
+        AtomicReference<Issuance> issuance = new AtomicReference<>();
+        return users.map(user -> buildJwt(user, issuance.updateAndGet(current -> Objects.isNull(current)
+                ? prepareIssuance()
+                : current)));
+    }
+
+    private ForkJoinPool batchPool() {
+        ForkJoinPool pool = batchPool;
+        if (Objects.nonNull(pool)) return pool;
+        synchronized (this) {
+            if (Objects.isNull(batchPool)) {
+                batchPool = new ForkJoinPool(batchParallelism);
+            }
+            return batchPool;
+        }
+    }
+
+    private Issuance prepareIssuance() {
+        Date issuedAt = new Date();
+        return new Issuance(keyRing.getSigningKey(), issuedAt, getExpiration(issuedAt, jwtProperties.getValidity()),
+                null);
+    }
+
+    private Issuance prepareIssuance(TenantRegistry.Tenant tenant) {
+        Date issuedAt = new Date();
+        return new Issuance(tenant.keyRing().getSigningKey(), issuedAt, getExpiration(issuedAt, tenant.validity()),
+                tenant.issuer());
+    }
 
-        Claims claims = Jwts
+    private String buildJwt(User user, Issuance issuance) {
+        Map<String, Object> userFields = objectMapper.convertValue(user, new TypeReference<>() {});
+        ClaimsBuilder claimsBuilder = Jwts
                 .claims()
                 .subject(user.getId().toString())
-                .add(objectMapper.convertValue(user, new TypeReference<Map<String, Object>>() {}))
-                .build();
+                .add(claimProfile.toClaims(userFields));
+        long securityVersion = securityVersionRegistry.currentVersion(user.getId());
+        if (securityVersion > 0) {
+            claimsBuilder.add(SECURITY_VERSION_CLAIM, securityVersion);
+        }
+        Claims claims = claimsBuilder.build();
 
-        return Jwts
-                .builder()
-                .issuer(user.getId().toString())
-                .issuedAt(new Date())
+        SigningKey signingKey = issuance.signingKey();
+        JwtBuilder jwtBuilder = Jwts.builder();
+        if (Objects.nonNull(signingKey.keyId())) {
+            jwtBuilder.header().keyId(signingKey.keyId());
+        }
+        if (Objects.nonNull(issuance.issuer())) {
+            jwtBuilder.issuer(issuance.issuer());
+        } else if (!claimProfile.isEnabled()) {
+            jwtBuilder.issuer(user.getId().toString());
+        }
+        return jwtBuilder
+                .id(UUID.randomUUID().toString())
+                .issuedAt(issuance.issuedAt())
                 .claims(claims)
-                .expiration(getExpiration())
-                .signWith(createSecretKey(jwtProperties.getSecret()))
+                .expiration(issuance.expiration())
+                .signWith(signingKey.key())
                 .encodePayload(true)
                 .compact();
     }
 
+    public TokenSizeReport reportTokenSize(User user) {
+        TokenSizeReport tokenSizeReport = TokenSizeReport.of(buildJwt(user));
+        log.info("Token size - header: {} bytes - payload: {} bytes - signature: {} bytes - total: {} bytes",
+                tokenSizeReport.headerBytes(), tokenSizeReport.payloadBytes(), tokenSizeReport.signatureBytes(),
+                tokenSizeReport.totalBytes());
+        return tokenSizeReport;
+    }
+
     public String getTokenHeader() {
         return jwtProperties.getHeader();
     }
 
     public Claims parseJwtClaims(String jwt) {
+        return parseJwtClaims(jwt, tenantRegistry.resolve(jwt));
+    }
+
+    private Claims parseJwtClaims(String jwt, TenantRegistry.Tenant tenant) {
+        JwtParser parser = Objects.isNull(tenant) ? jwtParser : tenant.parser();
         try {
-            return jwtParser.parseSignedClaims(jwt).getPayload();
+            return parser.parseSignedClaims(jwt).getPayload();
         } catch (io.jsonwebtoken.JwtException | IllegalArgumentException exception) {
             throw MagiavventureException.of(JwtException.NOT_AUTHENTICATED);
         }
     }
-    
+
     public EUser extractUser(String jwt) {
-        Claims claims = parseJwtClaims(jwt);
-        return Optional.ofNullable(claims)
-                .map(c -> objectMapper.convertValue(c, User.class))
-                .map(user -> userJwtService.retrieveById(user.getId()))
+        return extractUser(jwt, null);
+    }
+
+    public EUser extractUser(String jwt, String client) {
+        return extractUser(resolveVerifiedToken(jwt, client));
+    }
+
+    public EUser extractUser(VerifiedToken verifiedToken) {
+        User user = verifiedToken.user();
+        if (isStateless()) {
+            return toEUser(user);
+        }
+        return Optional.ofNullable(userJwtService.retrieveById(user.getId()))
                 .orElseThrow(() -> MagiavventureException.of(JwtException.NOT_AUTHENTICATED));
     }
 
+    public User resolveUser(String jwt) {
+        return resolveUser(jwt, null);
+    }
+
+    public User resolveUser(String jwt, String client) {
+        return resolveVerifiedToken(jwt, client).user();
+    }
+
+    public VerifiedToken resolveVerifiedToken(String jwt, String client) {
+        if (invalidTokenThrottle.isThrottled(client)) {
+            jwtMetrics.rejected(JwtMetrics.THROTTLED);
+            throw MagiavventureException.of(JwtException.NOT_AUTHENTICATED);
+        }
+        VerifiedToken verifiedToken;
+        try {
+            verifiedToken = verifiedToken(jwt);
+        } catch (MagiavventureException magiavventureException) {
+            invalidTokenThrottle.recordInvalid(client);
+            throw magiavventureException;
+        }
+        securityVersionRegistry.validate(verifiedToken.user().getId(), verifiedToken.securityVersion());
+        if (tokenRevocationStore.isRevoked(verifiedToken.tokenId())) {
+            throw MagiavventureException.of(JwtException.NOT_AUTHENTICATED);
+        }
+        return verifiedToken;
+    }
+
+    /**
+     * Renews a token verified by {@link #resolveVerifiedToken(String, String)} once it enters the renewal window,
+     * at most once per token id. The new token is built from the given user, as currently known by the
+     * application, so roles and names changed since the old token was issued are not carried over.
+     */
+    public Optional<String> renewJwt(VerifiedToken verifiedToken, EUser eUser) {
+        JwtProperties.RenewalProperties renewal = jwtProperties.getRenewal();
+        if (Objects.isNull(renewal) || !Boolean.TRUE.equals(renewal.getEnabled())) return Optional.empty();
+        long expiration = verifiedToken.expiration().getTime();
+        if (expiration - System.currentTimeMillis() > renewal.getWindow().toMillis()
+                || !renewedTokens.add(verifiedToken.tokenId(), verifiedToken.expiration())) {
+            return Optional.empty();
+        }
+        User user = toUser(eUser);
+        return Optional.of(Objects.isNull(verifiedToken.tenant())
+                ? buildJwt(user)
+                : buildJwt(user, verifiedToken.tenant()));
+    }
+
+    public String getRenewalHeader() {
+        return jwtProperties.getRenewal().resolveHeader(jwtProperties.getHeader());
+    }
+
+    public void revokeToken(String jwt) {
+        VerifiedToken verifiedToken = verifiedToken(jwt);
+        tokenRevocationStore.revoke(verifiedToken.tokenId(), verifiedToken.expiration());
+    }
+
+    public boolean isStateless() {
+        return Boolean.TRUE.equals(jwtProperties.getStateless());
+    }
+
+    public KeyRing getKeyRing() {
+        return keyRing;
+    }
+
+    public KeyRing getKeyRing(String tenant) {
+        return tenantRegistry.get(tenant).keyRing();
+    }
+
+    public void reloadKeys(JwtProperties refreshedProperties) {
+        keyRing.reload(refreshedProperties);
+        tenantRegistry.reload(refreshedProperties);
+    }
+
+    public SecurityVersionRegistry getSecurityVersionRegistry() {
+        return securityVersionRegistry;
+    }
+
+    public TokenRevocationStore getTokenRevocationStore() {
+        return tokenRevocationStore;
+    }
+
+    public VerifiedTokenCache getVerifiedTokenCache() {
+        return verifiedTokenCache;
+    }
+
     public String resolveToken(HttpServletRequest request) {
-        return Optional.ofNullable(request.getHeader(jwtProperties.getHeader()))
-                .filter(token -> !token.isEmpty() && !token.isBlank())
+        return resolveToken(firstHeader(request::getHeader));
+    }
+
+    public String resolveToken(HttpHeaders headers) {
+        return resolveToken(firstHeader(headers::getFirst));
+    }
+
+    public JwtMetrics getJwtMetrics() {
+        return jwtMetrics;
+    }
+
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    private String firstHeader(UnaryOperator<String> headerReader) {
+        String value = headerReader.apply(jwtProperties.getHeader());
+        if (Objects.nonNull(value) || tenantRegistry.isEmpty()) return value;
+        for (String header : tenantRegistry.getHeaders()) {
+            value = headerReader.apply(header);
+            if (Objects.nonNull(value)) return value;
+        }
+        return null;
+    }
+
+    private String resolveToken(String header) {
+        long start = jwtMetrics.start();
+        try {
+            return Optional.ofNullable(header)
+                    .filter(token -> !token.isEmpty() && !token.isBlank())
+                    .orElseThrow(() -> MagiavventureException.of(JwtException.NOT_AUTHENTICATED));
+        } finally {
+            jwtMetrics.stop(JwtMetrics.RESOLVE, start);
+        }
+    }
+
+    private VerifiedToken verifiedToken(String jwt) {
+        if (!tokenPreValidator.isValid(jwt)) {
+            jwtMetrics.rejected(JwtMetrics.PRE_VALIDATION);
+            throw MagiavventureException.of(JwtException.NOT_AUTHENTICATED);
+        }
+        return verifiedTokenCache.get(jwt)
+                .or(() -> verifyToken(jwt))
                 .orElseThrow(() -> MagiavventureException.of(JwtException.NOT_AUTHENTICATED));
     }
 
-    private Date getExpiration() {
-        return new Date(new Date().getTime()
-                + TimeUnit.of(ChronoUnit.MINUTES).toMillis(jwtProperties.getValidity()));
+    private Optional<VerifiedToken> verifyToken(String jwt) {
+        TenantRegistry.Tenant tenant = tenantRegistry.resolve(jwt);
+        Optional<VerifiedToken> verifiedToken = Objects.nonNull(tenant)
+                ? parseToken(jwt, tenant)
+                : fastVerifyToken(jwt).or(() -> parseToken(jwt, null));
+        verifiedToken.ifPresent(token -> verifiedTokenCache.put(jwt, token));
+        return verifiedToken;
+    }
+
+    private Optional<VerifiedToken> fastVerifyToken(String jwt) {
+        if (Objects.isNull(fastTokenVerifier)) return Optional.empty();
+        long start = jwtMetrics.start();
+        VerifiedToken verifiedToken = fastTokenVerifier.verify(jwt);
+        if (Objects.nonNull(verifiedToken)) {
+            jwtMetrics.stop(JwtMetrics.VERIFY, start);
+        }
+        return Optional.ofNullable(verifiedToken);
+    }
+
+    private Optional<VerifiedToken> parseToken(String jwt, TenantRegistry.Tenant tenant) {
+        Claims claims = verifyClaims(jwt, tenant);
+        long start = jwtMetrics.start();
+        Optional<VerifiedToken> verifiedToken = Optional.ofNullable(claims)
+                .map(c -> new VerifiedToken(objectMapper.convertValue(claimProfile.toUserFields(c), User.class),
+                        c.getExpiration(),
+                        getSecurityVersion(c),
+                        c.getId(),
+                        Objects.isNull(tenant) ? null : tenant.issuer()));
+        jwtMetrics.stop(JwtMetrics.MAP, start);
+        return verifiedToken;
+    }
+
+    private long getSecurityVersion(Claims claims) {
+        return claims.get(SECURITY_VERSION_CLAIM) instanceof Number securityVersion
+                ? securityVersion.longValue()
+                : 0L;
+    }
+
+    private EUser toEUser(User user) {
+        return EUser
+                .builder()
+                .id(user.getId())
+                .name(user.getName())
+                .preferredCategories(user.getPreferredCategories())
+                .authorities(user.getAuthorities())
+                .build();
+    }
+
+    private User toUser(EUser eUser) {
+        return User
+                .builder()
+                .id(eUser.getId())
+                .name(eUser.getName())
+                .preferredCategories(eUser.getPreferredCategories())
+                .authorities(eUser.getAuthorities())
+                .build();
+    }
+
+    private Claims verifyClaims(String jwt, TenantRegistry.Tenant tenant) {
+        long start = jwtMetrics.start();
+        try {
+            return parseJwtClaims(jwt, tenant);
+        } finally {
+            jwtMetrics.stop(JwtMetrics.VERIFY, start);
+        }
     }
-    
-    private SecretKey createSecretKey(String secret) {
-        return Keys.hmacShaKeyFor(getByteArraySecret(secret));
+
+    private Date getExpiration(Date issuedAt, Long validity) {
+        return new Date(issuedAt.getTime()
+                + TimeUnit.of(ChronoUnit.MINUTES).toMillis(validity));
+    }
+
+    @Override
+    public void destroy() {
+        keyRing.close();
+        tenantRegistry.close();
+        renewedTokens.close();
+        synchronized (this) {
+            if (Objects.nonNull(batchPool)) {
+                batchPool.shutdown();
+            }
+        }
     }
 
-    private byte[] getByteArraySecret(String secret) {
-        return secret.getBytes(StandardCharsets.UTF_8);
+    private record Issuance(SigningKey signingKey, Date issuedAt, Date expiration, String issuer) {
     }
 
 }
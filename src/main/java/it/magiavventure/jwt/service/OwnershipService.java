@@ -1,37 +1,85 @@
 package it.magiavventure.jwt.service;
 
 import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.audit.AuditLog;
+import it.magiavventure.jwt.authority.AuthorityRegistry;
+import it.magiavventure.jwt.authority.AuthorityRequirement;
 import it.magiavventure.jwt.config.AppContext;
+import it.magiavventure.jwt.config.AppContextHolder;
 import it.magiavventure.jwt.error.JwtException;
+import it.magiavventure.jwt.matcher.EndpointIndex;
+import it.magiavventure.jwt.metrics.JwtMetrics;
 import it.magiavventure.mongo.entity.EUser;
-import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OwnershipService {
 
-    private final AppContext appContext;
     public static final String USER_AUTHORITY = "user";
     public static final String ADMIN_AUTHORITY = "admin";
+    private static final AuthorityRequirement ADMIN_REQUIREMENT = AuthorityRegistry.requirement(ADMIN_AUTHORITY);
+
+    private final JwtMetrics jwtMetrics;
+    private final AuditLog auditLog;
+
+    public OwnershipService() {
+        this(null, null);
+    }
+
+    /**
+     * @deprecated the current user is read from {@link AppContextHolder}, use the constructor without AppContext
+     */
+    @Deprecated
+    public OwnershipService(AppContext appContext) {
+        this();
+    }
+
+    @Autowired
+    public OwnershipService(ObjectProvider<JwtMetrics> jwtMetricsProvider, ObjectProvider<AuditLog> auditLogProvider) {
+        this.jwtMetrics = JwtMetrics.from(jwtMetricsProvider);
+        this.auditLog = AuditLog.from(auditLogProvider);
+    }
 
     public void validateOwnership(Object value) {
         EUser eUser = retrieveCurrentUser();
-        if(eUser.getAuthorities().contains(ADMIN_AUTHORITY)) return;
+        try {
+            validateOwnership(eUser, value);
+        } catch (MagiavventureException magiavventureException) {
+            String outcome = magiavventureException.getError().getKey();
+            Optional<HttpServletRequest> request = currentRequest();
+            jwtMetrics.outcome(outcome);
+            auditLog.publish(eUser.getId(), outcome, request.map(HttpServletRequest::getMethod).orElse(null),
+                    request.map(EndpointIndex::requestPath).orElse(null));
+            throw magiavventureException;
+        }
+    }
+
+    static void validateOwnership(EUser eUser, Object value) {
+        if(AuthorityRegistry.intern(eUser.getAuthorities()).matches(ADMIN_REQUIREMENT)) return;
         if(value instanceof UUID && !value.equals(eUser.getId()))
             throw MagiavventureException.of(JwtException.OWNERSHIP);
         if(value instanceof String && !value.equals(eUser.getName()))
             throw MagiavventureException.of(JwtException.OWNERSHIP);
     }
 
+    private static Optional<HttpServletRequest> currentRequest() {
+        return Optional.ofNullable(RequestContextHolder.getRequestAttributes())
+                .filter(ServletRequestAttributes.class::isInstance)
+                .map(attributes -> ((ServletRequestAttributes) attributes).getRequest());
+    }
+
     private EUser retrieveCurrentUser() {
-        return Optional.ofNullable(appContext)
-                .map(AppContext::getUser)
+        return Optional.ofNullable(AppContextHolder.getUser())
                 .orElseThrow(() -> MagiavventureException.of(JwtException.NOT_AUTHENTICATED));
     }
 }
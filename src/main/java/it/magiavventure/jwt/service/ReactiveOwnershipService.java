@@ -0,0 +1,15 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.config.ReactiveAppContext;
+import it.magiavventure.jwt.error.JwtException;
+import reactor.core.publisher.Mono;
+
+public class ReactiveOwnershipService {
+
+    public Mono<Void> validateOwnership(Object value) {
+        return ReactiveAppContext.getUser()
+                .switchIfEmpty(Mono.error(() -> MagiavventureException.of(JwtException.NOT_AUTHENTICATED)))
+                .flatMap(eUser -> Mono.<Void>fromRunnable(() -> OwnershipService.validateOwnership(eUser, value)));
+    }
+}
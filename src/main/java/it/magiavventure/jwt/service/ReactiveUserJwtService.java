@@ -0,0 +1,27 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.error.JwtException;
+import it.magiavventure.mongo.entity.EUser;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.UUID;
+
+/**
+ * Non-blocking access to {@link UserJwtService}: the repository lookup, and its cache, run on a scheduler
+ * meant for blocking work so that event loop threads are never parked on the database.
+ */
+@RequiredArgsConstructor
+public class ReactiveUserJwtService {
+
+    private final UserJwtService userJwtService;
+    private final Scheduler scheduler;
+
+    public Mono<EUser> retrieveById(UUID id) {
+        return Mono.fromCallable(() -> userJwtService.retrieveById(id))
+                .subscribeOn(scheduler)
+                .switchIfEmpty(Mono.error(() -> MagiavventureException.of(JwtException.NOT_AUTHENTICATED)));
+    }
+}
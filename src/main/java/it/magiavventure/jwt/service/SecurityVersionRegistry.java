@@ -0,0 +1,76 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.error.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-user security version and ban epoch. Only users that have been revoked or banned
+ * have an entry, so the structure stays as small as the set of sanctioned users.
+ * Tokens carry the security version they were issued with and are rejected once the user version moves on
+ * or while the user is banned.
+ */
+@Slf4j
+@Component
+public class SecurityVersionRegistry {
+
+    private final Map<UUID, SecurityState> states = new ConcurrentHashMap<>();
+
+    public long currentVersion(UUID userId) {
+        SecurityState state = states.get(userId);
+        return Objects.isNull(state) ? 0L : state.version();
+    }
+
+    public void validate(UUID userId, long securityVersion) {
+        SecurityState state = states.get(userId);
+        if (Objects.isNull(state)) return;
+        if (securityVersion < state.version()) {
+            throw MagiavventureException.of(JwtException.NOT_AUTHENTICATED);
+        }
+        if (state.bannedUntil() > System.currentTimeMillis()) {
+            throw MagiavventureException.of(JwtException.NOT_AUTHENTICATED);
+        }
+        if (state.version() == 0L) {
+            states.remove(userId, state);
+        }
+    }
+
+    public long revoke(UUID userId) {
+        log.info("Revoking tokens of user '{}'", userId);
+        return states.compute(userId, (id, state) -> Objects.isNull(state)
+                ? new SecurityState(1L, 0L)
+                : new SecurityState(state.version() + 1, state.bannedUntil())).version();
+    }
+
+    public void ban(UUID userId, Instant until) {
+        log.info("Banning user '{}' until {}", userId, until);
+        states.compute(userId, (id, state) -> Objects.isNull(state)
+                ? new SecurityState(0L, until.toEpochMilli())
+                : new SecurityState(state.version(), until.toEpochMilli()));
+    }
+
+    public void unban(UUID userId) {
+        states.computeIfPresent(userId, (id, state) -> state.version() == 0L
+                ? null
+                : new SecurityState(state.version(), 0L));
+    }
+
+    public void restore(UUID userId, long version, Instant bannedUntil) {
+        states.put(userId, new SecurityState(version,
+                Objects.isNull(bannedUntil) ? 0L : bannedUntil.toEpochMilli()));
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    private record SecurityState(long version, long bannedUntil) {
+    }
+}
@@ -0,0 +1,138 @@
+package it.magiavventure.jwt.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.JwtProperties.KeyRingProperties;
+import it.magiavventure.jwt.config.JwtProperties.TenantProperties;
+import it.magiavventure.jwt.key.KeyRing;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tenants served by the instance, indexed by the issuer their tokens carry. Every tenant owns a key ring and a
+ * prebuilt parser; the tenant of a token is found by peeking its {@code iss} claim before any verification.
+ */
+final class TenantRegistry implements AutoCloseable {
+
+    private final Map<String, Tenant> tenants;
+    private final List<String> headers;
+    private final JsonFactory jsonFactory;
+
+    TenantRegistry(JwtProperties jwtProperties, JsonFactory jsonFactory) {
+        Map<String, Tenant> configured = new HashMap<>();
+        Set<String> tenantHeaders = new LinkedHashSet<>();
+        Optional.ofNullable(jwtProperties.getTenants())
+                .orElse(Map.of())
+                .forEach((issuer, tenantProperties) -> {
+                    Tenant tenant = tenant(issuer, tenantProperties, jwtProperties);
+                    configured.put(issuer, tenant);
+                    if (Objects.nonNull(tenant.header())) {
+                        tenantHeaders.add(tenant.header());
+                    }
+                });
+        this.tenants = Map.copyOf(configured);
+        this.headers = List.copyOf(tenantHeaders);
+        this.jsonFactory = jsonFactory;
+    }
+
+    boolean isEmpty() {
+        return tenants.isEmpty();
+    }
+
+    Tenant get(String issuer) {
+        Tenant tenant = Objects.isNull(issuer) ? null : tenants.get(issuer);
+        if (Objects.isNull(tenant)) {
+            throw new IllegalArgumentException("Unknown tenant '" + issuer + "'");
+        }
+        return tenant;
+    }
+
+    Set<String> getIssuers() {
+        return tenants.keySet();
+    }
+
+    List<String> getHeaders() {
+        return headers;
+    }
+
+    void addReloadListener(Runnable reloadListener) {
+        tenants.values().forEach(tenant -> tenant.keyRing().addReloadListener(reloadListener));
+    }
+
+    /**
+     * Reloads the key ring of every configured tenant from refreshed properties. Tenants are fixed at startup,
+     * added or removed tenants are not picked up.
+     */
+    void reload(JwtProperties jwtProperties) {
+        Map<String, TenantProperties> refreshedTenants = Optional.ofNullable(jwtProperties.getTenants())
+                .orElse(Map.of());
+        tenants.forEach((issuer, tenant) -> Optional.ofNullable(refreshedTenants.get(issuer))
+                .ifPresent(tenantProperties -> tenant.keyRing().reload(keyRingProperties(tenantProperties))));
+    }
+
+    Tenant resolve(String jwt) {
+        if (tenants.isEmpty()) return null;
+        String issuer = peekIssuer(jwt);
+        return Objects.isNull(issuer) ? null : tenants.get(issuer);
+    }
+
+    @Override
+    public void close() {
+        tenants.values().forEach(tenant -> tenant.keyRing().close());
+    }
+
+    private String peekIssuer(String jwt) {
+        int firstDot = jwt.indexOf('.');
+        int secondDot = jwt.indexOf('.', firstDot + 1);
+        if (firstDot < 0 || secondDot < 0) return null;
+        try (JsonParser parser = jsonFactory.createParser(Base64.getUrlDecoder()
+                .decode(jwt.substring(firstDot + 1, secondDot)))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("iss".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException | IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    private static Tenant tenant(String issuer, TenantProperties tenantProperties, JwtProperties jwtProperties) {
+        KeyRing keyRing = new KeyRing(keyRingProperties(tenantProperties));
+        JwtParser parser = Jwts
+                .parser()
+                .keyLocator(keyRing)
+                .requireIssuer(issuer)
+                .build();
+        return new Tenant(issuer, keyRing, parser,
+                Optional.ofNullable(tenantProperties.getValidity()).orElse(jwtProperties.getValidity()),
+                Optional.ofNullable(tenantProperties.getHeader()).orElse(jwtProperties.getHeader()));
+    }
+
+    private static JwtProperties keyRingProperties(TenantProperties tenantProperties) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(tenantProperties.getSecret());
+        properties.setKeyRing(Optional.ofNullable(tenantProperties.getKeyRing()).orElseGet(KeyRingProperties::new));
+        return properties;
+    }
+
+    record Tenant(String issuer, KeyRing keyRing, JwtParser parser, Long validity, String header) {
+    }
+}
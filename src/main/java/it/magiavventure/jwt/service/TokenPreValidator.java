@@ -0,0 +1,98 @@
+package it.magiavventure.jwt.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.magiavventure.jwt.config.JwtProperties.PreValidationProperties;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Structural checks run before any signature or json work: length bounds, three non empty Base64URL segments and
+ * a header whose algorithm is accepted. Accepted headers are decoded once and cached, since the tokens of an
+ * instance share a handful of them; rejected headers are never cached, and a full cache is cleared rather than
+ * frozen, so garbage tokens cannot lock legitimate headers out of it.
+ */
+final class TokenPreValidator {
+
+    private static final int MAX_CACHED_HEADERS = 256;
+    private static final boolean[] BASE64_URL = new boolean[128];
+
+    static {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL[alphabet.charAt(i)] = true;
+        }
+    }
+
+    private final boolean enabled;
+    private final int minLength;
+    private final int maxLength;
+    private final Set<String> algorithms;
+    private final ObjectMapper objectMapper;
+    private final Set<String> acceptedHeaders = ConcurrentHashMap.newKeySet();
+
+    TokenPreValidator(PreValidationProperties preValidationProperties, ObjectMapper objectMapper) {
+        PreValidationProperties properties = Optional.ofNullable(preValidationProperties)
+                .orElseGet(PreValidationProperties::new);
+        this.enabled = Boolean.TRUE.equals(properties.getEnabled());
+        this.minLength = Optional.ofNullable(properties.getMinLength()).orElse(0);
+        this.maxLength = Optional.ofNullable(properties.getMaxLength()).orElse(Integer.MAX_VALUE);
+        this.algorithms = Set.copyOf(properties.getAlgorithms());
+        this.objectMapper = objectMapper;
+    }
+
+    boolean isValid(String jwt) {
+        if (!enabled) return true;
+        int length = jwt.length();
+        if (length < minLength || length > maxLength) return false;
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = jwt.charAt(i);
+            if (c == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    return false;
+                }
+            } else if (c >= 128 || !BASE64_URL[c]) {
+                return false;
+            }
+        }
+        if (firstDot <= 0 || secondDot <= firstDot + 1 || secondDot == length - 1) return false;
+        return isAcceptedHeader(jwt.substring(0, firstDot));
+    }
+
+    int cachedHeaders() {
+        return acceptedHeaders.size();
+    }
+
+    private boolean isAcceptedHeader(String header) {
+        if (acceptedHeaders.contains(header)) return true;
+        if (decodeAlgorithm(header).filter(algorithms::contains).isEmpty()) return false;
+        if (acceptedHeaders.size() >= MAX_CACHED_HEADERS) {
+            acceptedHeaders.clear();
+        }
+        acceptedHeaders.add(header);
+        return true;
+    }
+
+    private Optional<String> decodeAlgorithm(String header) {
+        try {
+            JsonNode node = objectMapper.readTree(Base64.getUrlDecoder().decode(header));
+            return Optional.ofNullable(node)
+                    .filter(JsonNode::isObject)
+                    .map(json -> json.get("alg"))
+                    .filter(JsonNode::isTextual)
+                    .map(JsonNode::asText);
+        } catch (IOException | IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package it.magiavventure.jwt.service;
+
+/**
+ * Size in bytes of the three segments of a compact token, as sent in the request header.
+ */
+public record TokenSizeReport(int headerBytes, int payloadBytes, int signatureBytes) {
+
+    public static TokenSizeReport of(String jwt) {
+        int firstDot = jwt.indexOf('.');
+        int lastDot = jwt.lastIndexOf('.');
+        return new TokenSizeReport(firstDot, lastDot - firstDot - 1, jwt.length() - lastDot - 1);
+    }
+
+    public int totalBytes() {
+        return headerBytes + payloadBytes + signatureBytes + 2;
+    }
+}
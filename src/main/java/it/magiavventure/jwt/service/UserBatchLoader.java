@@ -0,0 +1,94 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.config.JwtProperties.UserBatchProperties;
+import it.magiavventure.jwt.error.JwtException;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.repository.UserRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the user lookups of different ids for a short window, or until the batch is full, and resolves
+ * them with a single {@link UserRepository#findAllById(Iterable)}, completing every lookup on its own.
+ */
+final class UserBatchLoader implements AutoCloseable {
+
+    private final UserRepository userRepository;
+    private final long windowMicros;
+    private final int maxSize;
+    private final ScheduledExecutorService flushExecutor;
+    private final Object lock = new Object();
+    private Map<UUID, CompletableFuture<EUser>> pending = new HashMap<>();
+
+    UserBatchLoader(UserRepository userRepository, UserBatchProperties userBatchProperties) {
+        this.userRepository = userRepository;
+        this.windowMicros = Optional.ofNullable(userBatchProperties.getWindow())
+                .map(window -> TimeUnit.NANOSECONDS.toMicros(window.toNanos()))
+                .orElse(0L);
+        this.maxSize = Math.max(1, Optional.ofNullable(userBatchProperties.getMaxSize()).orElse(1));
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-user-batch-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static boolean isEnabled(UserBatchProperties userBatchProperties) {
+        return Objects.nonNull(userBatchProperties) && Boolean.TRUE.equals(userBatchProperties.getEnabled());
+    }
+
+    CompletableFuture<EUser> load(UUID id) {
+        Map<UUID, CompletableFuture<EUser>> batch = null;
+        CompletableFuture<EUser> lookup;
+        synchronized (lock) {
+            lookup = pending.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (pending.size() >= maxSize) {
+                batch = pending;
+                pending = new HashMap<>();
+            } else if (pending.size() == 1) {
+                flushExecutor.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (Objects.nonNull(batch)) {
+            resolve(batch);
+        }
+        return lookup;
+    }
+
+    @Override
+    public void close() {
+        flushExecutor.shutdownNow();
+        flush();
+    }
+
+    private void flush() {
+        Map<UUID, CompletableFuture<EUser>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        resolve(batch);
+    }
+
+    private void resolve(Map<UUID, CompletableFuture<EUser>> batch) {
+        try {
+            Map<UUID, EUser> users = new HashMap<>();
+            userRepository.findAllById(batch.keySet()).forEach(eUser -> users.put(eUser.getId(), eUser));
+            batch.forEach((id, lookup) -> Optional.ofNullable(users.get(id))
+                    .ifPresentOrElse(lookup::complete, () -> lookup
+                            .completeExceptionally(MagiavventureException.of(JwtException.NOT_AUTHENTICATED))));
+        } catch (RuntimeException exception) {
+            batch.values().forEach(lookup -> lookup.completeExceptionally(exception));
+        }
+    }
+}
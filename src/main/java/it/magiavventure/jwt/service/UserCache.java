@@ -0,0 +1,108 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.jwt.config.JwtProperties.UserCacheProperties;
+import it.magiavventure.mongo.entity.EUser;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the users read from the repository. When the application provides the shared Spring cache the users
+ * are kept there, so evictions done by other services (e.g. {@code @CacheEvict("user")}) are honoured and the
+ * entry expiry is the one configured on the cache provider. Otherwise users are kept in a bounded local cache
+ * with an expiry computed per entry: an entry never outlives the max ttl and the entry of a banned user expires
+ * with the ban. Evictions move an epoch forward, so a load started before an eviction is not cached.
+ */
+final class UserCache {
+
+    private final Cache sharedCache;
+    private final ExpiringCache<UUID, EUser> entries;
+    private final AtomicLong epoch = new AtomicLong();
+    private final boolean enabled;
+    private final long maxTtlMillis;
+
+    UserCache(UserCacheProperties userCacheProperties, Cache sharedCache) {
+        UserCacheProperties properties = Optional.ofNullable(userCacheProperties)
+                .orElseGet(UserCacheProperties::new);
+        int maxSize = Optional.ofNullable(properties.getMaxSize()).orElse(0);
+        this.sharedCache = sharedCache;
+        this.enabled = Boolean.TRUE.equals(properties.getEnabled()) && (Objects.nonNull(sharedCache) || maxSize > 0);
+        this.maxTtlMillis = Optional.ofNullable(properties.getMaxTtl())
+                .map(Duration::toMillis)
+                .orElse(Long.MAX_VALUE);
+        this.entries = new ExpiringCache<>(maxSize);
+    }
+
+    EUser get(UUID id) {
+        if (!enabled || Objects.isNull(id)) return null;
+        if (isShared()) return sharedCache.get(id, EUser.class);
+        return entries.get(id, System.currentTimeMillis());
+    }
+
+    long epoch() {
+        return epoch.get();
+    }
+
+    void put(UUID id, EUser eUser, long loadEpoch) {
+        if (!enabled || Objects.isNull(id) || Objects.isNull(eUser)) return;
+        if (isShared()) {
+            sharedCache.put(id, eUser);
+        } else {
+            long now = System.currentTimeMillis();
+            long expiresAt = expiresAt(eUser, now);
+            if (expiresAt <= now) return;
+            entries.put(id, eUser, expiresAt, now);
+        }
+        if (epoch.get() != loadEpoch) {
+            remove(id);
+        }
+    }
+
+    void evict(UUID id) {
+        epoch.incrementAndGet();
+        remove(id);
+    }
+
+    void evictAll() {
+        epoch.incrementAndGet();
+        if (isShared()) {
+            sharedCache.clear();
+        } else {
+            entries.clear();
+        }
+    }
+
+    boolean isShared() {
+        return Objects.nonNull(sharedCache);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void remove(UUID id) {
+        if (isShared()) {
+            sharedCache.evict(id);
+        } else {
+            entries.remove(id);
+        }
+    }
+
+    private long expiresAt(EUser eUser, long now) {
+        long expiresAt = maxTtlMillis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + maxTtlMillis;
+        LocalDateTime banExpiration = eUser.getBanExpiration();
+        if (Objects.nonNull(banExpiration)) {
+            long banEnd = banExpiration.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (banEnd > now) {
+                expiresAt = Math.min(expiresAt, banEnd);
+            }
+        }
+        return expiresAt;
+    }
+}
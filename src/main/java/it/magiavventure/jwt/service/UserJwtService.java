@@ -1,34 +1,136 @@
 package it.magiavventure.jwt.service;
 
 import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.JwtProperties.UserBatchProperties;
+import it.magiavventure.jwt.config.JwtProperties.UserCacheProperties;
 import it.magiavventure.jwt.error.JwtException;
+import it.magiavventure.jwt.metrics.JwtMetrics;
 import it.magiavventure.mongo.entity.EUser;
 import it.magiavventure.mongo.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class UserJwtService {
+public class UserJwtService implements DisposableBean {
 
     private final UserRepository userRepository;
+    private final JwtMetrics jwtMetrics;
+    private final UserBatchLoader userBatchLoader;
+    private final UserCache userCache;
+    private final Map<UUID, CompletableFuture<EUser>> inFlightLookups = new ConcurrentHashMap<>();
+
+    public UserJwtService(UserRepository userRepository) {
+        this(userRepository, null, null);
+    }
+
+    public UserJwtService(UserRepository userRepository, ObjectProvider<JwtMetrics> jwtMetricsProvider,
+                          JwtProperties jwtProperties) {
+        this(userRepository, jwtMetricsProvider, jwtProperties, null);
+    }
+
+    @Autowired
+    public UserJwtService(UserRepository userRepository, ObjectProvider<JwtMetrics> jwtMetricsProvider,
+                          JwtProperties jwtProperties, ObjectProvider<CacheManager> cacheManagerProvider) {
+        this.userRepository = userRepository;
+        this.jwtMetrics = JwtMetrics.from(jwtMetricsProvider);
+        UserBatchProperties userBatchProperties = Optional.ofNullable(jwtProperties)
+                .map(JwtProperties::getUserBatch)
+                .orElse(null);
+        this.userBatchLoader = UserBatchLoader.isEnabled(userBatchProperties)
+                ? new UserBatchLoader(userRepository, userBatchProperties)
+                : null;
+        UserCacheProperties userCacheProperties = Optional.ofNullable(jwtProperties)
+                .map(JwtProperties::getUserCache)
+                .orElseGet(UserCacheProperties::new);
+        Cache sharedCache = Optional.ofNullable(cacheManagerProvider)
+                .map(ObjectProvider::getIfAvailable)
+                .filter(cacheManager -> StringUtils.hasText(userCacheProperties.getCacheName()))
+                .map(cacheManager -> cacheManager.getCache(userCacheProperties.getCacheName()))
+                .orElse(null);
+        this.userCache = new UserCache(userCacheProperties, sharedCache);
+    }
 
-    @Cacheable(value = "user", key = "#p0")
     public EUser retrieveById(UUID id) {
-        EUser eUser = userRepository
-                .findById(id)
-                .orElseThrow(() -> MagiavventureException.of(JwtException.NOT_AUTHENTICATED));
-        validateUser(eUser);
+        long start = jwtMetrics.start();
+        try {
+            return lookup(id);
+        } finally {
+            jwtMetrics.stop(JwtMetrics.USER_LOOKUP, start);
+        }
+    }
+
+    public void evict(UUID id) {
+        userCache.evict(id);
+    }
+
+    public void evictAll() {
+        userCache.evictAll();
+    }
+
+    private EUser lookup(UUID id) {
+        EUser cachedUser = userCache.get(id);
+        if (Objects.nonNull(cachedUser)) {
+            validateUser(cachedUser);
+            return cachedUser;
+        }
+        CompletableFuture<EUser> lookup = new CompletableFuture<>();
+        CompletableFuture<EUser> inFlightLookup = inFlightLookups.putIfAbsent(id, lookup);
+        if (Objects.nonNull(inFlightLookup)) {
+            EUser eUser = awaitLookup(inFlightLookup);
+            validateUser(eUser);
+            return eUser;
+        }
+        try {
+            EUser eUser = loadUser(id);
+            lookup.complete(eUser);
+            validateUser(eUser);
+            return eUser;
+        } catch (RuntimeException exception) {
+            lookup.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlightLookups.remove(id, lookup);
+        }
+    }
+
+    private EUser loadUser(UUID id) {
+        long loadEpoch = userCache.epoch();
+        jwtMetrics.userLoaded();
+        EUser eUser = Objects.nonNull(userBatchLoader)
+                ? awaitLookup(userBatchLoader.load(id))
+                : userRepository
+                        .findById(id)
+                        .orElseThrow(() -> MagiavventureException.of(JwtException.NOT_AUTHENTICATED));
+        userCache.put(id, eUser, loadEpoch);
         return eUser;
     }
 
+    private EUser awaitLookup(CompletableFuture<EUser> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw exception;
+        }
+    }
+
     public void validateUser(EUser eUser) {
         LocalDateTime banExpiration = eUser.getBanExpiration();
         if(Objects.nonNull(banExpiration) && banExpiration.isAfter(LocalDateTime.now())) {
@@ -36,4 +138,11 @@ public class UserJwtService {
         }
     }
 
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(userBatchLoader)) {
+            userBatchLoader.close();
+        }
+    }
+
 }
@@ -0,0 +1,17 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.mongo.model.User;
+
+import java.util.Date;
+
+/**
+ * The outcome of a successful token verification: the user mapped from the claims and the
+ * few registered claims the library keeps checking after the signature. The tenant is null
+ * for the tokens signed with the global keys.
+ */
+public record VerifiedToken(User user, Date expiration, long securityVersion, String tokenId, String tenant) {
+
+    public VerifiedToken(User user, Date expiration, long securityVersion, String tokenId) {
+        this(user, expiration, securityVersion, tokenId, null);
+    }
+}
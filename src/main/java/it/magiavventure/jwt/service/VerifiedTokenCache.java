@@ -0,0 +1,94 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.jwt.config.JwtProperties.TokenCacheProperties;
+import it.magiavventure.jwt.metrics.TokenCacheStats;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of already verified tokens, keyed by the SHA-256 digest of the compact jwt.
+ * Entries never outlive the token expiration; at capacity a small sample of entries is evicted instead of
+ * scanning the whole cache.
+ */
+public class VerifiedTokenCache implements TokenCacheStats {
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    });
+
+    private final ExpiringCache<TokenKey, VerifiedToken> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final boolean enabled;
+    private final long ttlMillis;
+
+    public VerifiedTokenCache(TokenCacheProperties tokenCacheProperties) {
+        TokenCacheProperties properties = Optional.ofNullable(tokenCacheProperties)
+                .orElseGet(TokenCacheProperties::new);
+        int maxSize = Optional.ofNullable(properties.getMaxSize()).orElse(0);
+        this.enabled = Boolean.TRUE.equals(properties.getEnabled()) && maxSize > 0;
+        this.ttlMillis = Optional.ofNullable(properties.getTtl())
+                .map(Duration::toMillis)
+                .orElse(Long.MAX_VALUE);
+        this.entries = new ExpiringCache<>(maxSize);
+    }
+
+    public Optional<VerifiedToken> get(String jwt) {
+        if (!enabled || Objects.isNull(jwt)) return Optional.empty();
+        VerifiedToken verifiedToken = entries.get(TokenKey.of(jwt), System.currentTimeMillis());
+        if (Objects.isNull(verifiedToken)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(verifiedToken);
+    }
+
+    public void put(String jwt, VerifiedToken verifiedToken) {
+        if (!enabled || Objects.isNull(jwt) || Objects.isNull(verifiedToken)) return;
+        long now = System.currentTimeMillis();
+        long expiresAt = ttlMillis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + ttlMillis;
+        if (Objects.nonNull(verifiedToken.expiration())) {
+            expiresAt = Math.min(expiresAt, verifiedToken.expiration().getTime());
+        }
+        if (expiresAt <= now) return;
+        entries.put(TokenKey.of(jwt), verifiedToken, expiresAt, now);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private record TokenKey(long first, long second, long third, long fourth) {
+        static TokenKey of(String jwt) {
+            MessageDigest messageDigest = DIGEST.get();
+            ByteBuffer digest = ByteBuffer.wrap(messageDigest.digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenKey(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+    }
+}
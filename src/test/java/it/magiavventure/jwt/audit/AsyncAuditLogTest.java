@@ -0,0 +1,189 @@
+package it.magiavventure.jwt.audit;
+
+import it.magiavventure.jwt.config.JwtProperties.AuditProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("Async audit log tests")
+class AsyncAuditLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Given published events drain write them in order by batches")
+    void givenPublishedEvents_drain_writeInOrderByBatches() {
+        List<List<AuditEvent>> batches = new CopyOnWriteArrayList<>();
+        AsyncAuditLog auditLog = new AsyncAuditLog(auditProperties(16, 4),
+                events -> batches.add(List.copyOf(events)), null);
+        UUID userId = UUID.randomUUID();
+
+        for (int i = 0; i < 10; i++) {
+            auditLog.publish(userId, "authenticated", "GET", "/path/" + i);
+        }
+        auditLog.drain();
+
+        Assertions.assertEquals(List.of(4, 4, 2), batches.stream().map(List::size).toList());
+        Assertions.assertEquals("/path/0", batches.get(0).get(0).path());
+        Assertions.assertEquals("/path/9", batches.get(2).get(1).path());
+        Assertions.assertEquals(10, auditLog.getPublished());
+        Assertions.assertEquals(10, auditLog.getWritten());
+        Assertions.assertEquals(0, auditLog.getPending());
+        auditLog.destroy();
+    }
+
+    @Test
+    @DisplayName("Given a full buffer publish drop the events without blocking")
+    void givenFullBuffer_publish_dropEvents() {
+        AsyncAuditLog auditLog = new AsyncAuditLog(auditProperties(8, 8), events -> {
+        }, null);
+
+        for (int i = 0; i < 20; i++) {
+            auditLog.publish(null, "not-authenticated", "GET", "/path");
+        }
+
+        Assertions.assertEquals(8, auditLog.getPublished());
+        Assertions.assertEquals(12, auditLog.getDropped());
+        auditLog.drain();
+        auditLog.publish(null, "not-authenticated", "GET", "/path");
+        Assertions.assertEquals(9, auditLog.getPublished());
+        auditLog.destroy();
+    }
+
+    @Test
+    @DisplayName("Given a failing sink drain count the failed events")
+    void givenFailingSink_drain_countFailedEvents() {
+        AsyncAuditLog auditLog = new AsyncAuditLog(auditProperties(8, 8), events -> {
+            throw new IOException("disk full");
+        }, null);
+
+        auditLog.publish(null, "not-authenticated", "GET", "/path");
+        auditLog.drain();
+
+        Assertions.assertEquals(1, auditLog.getFailed());
+        Assertions.assertEquals(0, auditLog.getWritten());
+        auditLog.destroy();
+    }
+
+    @Test
+    @DisplayName("Given concurrent producers drain receive every published event once")
+    void givenConcurrentProducers_drain_receiveEveryEventOnce() throws InterruptedException {
+        List<AuditEvent> received = new ArrayList<>();
+        AsyncAuditLog auditLog = new AsyncAuditLog(auditProperties(1 << 14, 256), received::addAll, null);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+
+        for (int producer = 0; producer < 4; producer++) {
+            String path = "/producer/" + producer;
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    auditLog.publish(null, "authenticated", "GET", path);
+                }
+                done.countDown();
+            });
+        }
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        auditLog.destroy();
+
+        Assertions.assertEquals(4000, received.size());
+        Assertions.assertEquals(4000, auditLog.getWritten());
+        Assertions.assertEquals(0, auditLog.getDropped());
+    }
+
+    @Test
+    @DisplayName("Given a write in progress destroy let it complete and drain the pending events")
+    void givenWriteInProgress_destroy_writePendingEvents() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        List<AuditEvent> received = new CopyOnWriteArrayList<>();
+        AuditProperties auditProperties = auditProperties(8, 8);
+        auditProperties.setFlushInterval(Duration.ofMillis(10));
+        AsyncAuditLog auditLog = new AsyncAuditLog(auditProperties, events -> {
+            writing.countDown();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", exception);
+            }
+            received.addAll(events);
+        }, null);
+
+        auditLog.publish(null, "authenticated", "GET", "/first");
+        Assertions.assertTrue(writing.await(5, TimeUnit.SECONDS));
+        auditLog.publish(null, "authenticated", "GET", "/second");
+        auditLog.destroy();
+
+        Assertions.assertEquals(List.of("/first", "/second"), received.stream().map(AuditEvent::path).toList());
+        Assertions.assertEquals(0, auditLog.getFailed());
+    }
+
+    @Test
+    @DisplayName("Given a failed write rolling file sink reopen the file on the next write")
+    void givenFailedWrite_rollingFileSink_reopenFile() throws IOException {
+        Path file = tempDir.resolve("jwt-audit.log");
+        AuditProperties auditProperties = auditProperties(8, 8);
+        auditProperties.setFile(file.toString());
+        RollingFileAuditSink sink = new RollingFileAuditSink(auditProperties);
+        AuditEvent event = new AuditEvent(0L, null, "authenticated", "GET", "/path");
+
+        sink.write(List.of(event));
+        Thread.currentThread().interrupt();
+        Assertions.assertThrows(IOException.class, () -> sink.write(List.of(event)));
+        Assertions.assertTrue(Thread.interrupted());
+        sink.write(List.of(event));
+        sink.close();
+
+        Assertions.assertEquals(2, Files.readAllLines(file).size());
+    }
+
+    @Test
+    @DisplayName("Given the max file size rolling file sink roll the file")
+    void givenMaxFileSize_rollingFileSink_rollFile() throws IOException {
+        Path file = tempDir.resolve("audit").resolve("jwt-audit.log");
+        AuditProperties auditProperties = auditProperties(8, 8);
+        auditProperties.setFile(file.toString());
+        auditProperties.setMaxFileSize(DataSize.ofBytes(300));
+        auditProperties.setMaxHistory(2);
+        RollingFileAuditSink sink = new RollingFileAuditSink(auditProperties);
+        AuditEvent event = new AuditEvent(0L, UUID.randomUUID(), "authenticated", "GET", "/path \"quoted\"");
+
+        for (int i = 0; i < 6; i++) {
+            sink.write(List.of(event, event));
+        }
+        sink.close();
+
+        Assertions.assertTrue(Files.exists(file));
+        Assertions.assertTrue(Files.exists(file.resolveSibling("jwt-audit.log.1")));
+        Assertions.assertTrue(Files.exists(file.resolveSibling("jwt-audit.log.2")));
+        Assertions.assertFalse(Files.exists(file.resolveSibling("jwt-audit.log.3")));
+        String line = Files.readAllLines(file).get(0);
+        Assertions.assertTrue(line.startsWith("{\"timestamp\":\"1970-01-01T00:00:00Z\",\"outcome\":\"authenticated\""));
+        Assertions.assertTrue(line.endsWith("\"path\":\"/path \\\"quoted\\\"\"}"));
+    }
+
+    private static AuditProperties auditProperties(int capacity, int batchSize) {
+        AuditProperties auditProperties = new AuditProperties();
+        auditProperties.setEnabled(true);
+        auditProperties.setCapacity(capacity);
+        auditProperties.setBatchSize(batchSize);
+        auditProperties.setFlushInterval(Duration.ofHours(1));
+        return auditProperties;
+    }
+}
@@ -0,0 +1,78 @@
+package it.magiavventure.jwt.authority;
+
+import it.magiavventure.mongo.entity.EUser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+@DisplayName("Authority registry tests")
+class AuthorityRegistryTest {
+
+    @Test
+    @DisplayName("Given equal authority lists intern the same set")
+    void givenEqualAuthorities_intern_sameSet() {
+        AuthoritySet first = AuthorityRegistry.intern(new ArrayList<>(List.of("user", "admin")));
+        AuthoritySet second = AuthorityRegistry.intern(List.of("user", "admin"));
+
+        Assertions.assertSame(first, second);
+        Assertions.assertSame(first.getGrantedAuthorities(), second.getGrantedAuthorities());
+        Assertions.assertEquals(2, Long.bitCount(first.getMask()));
+        Assertions.assertSame(AuthoritySet.EMPTY, AuthorityRegistry.intern(null));
+    }
+
+    @Test
+    @DisplayName("Given null authorities intern ignore them")
+    void givenNullAuthorities_intern_ignoreThem() {
+        AuthoritySet authoritySet = AuthorityRegistry.intern(new ArrayList<>(Arrays.asList("user", null, "admin")));
+
+        Assertions.assertSame(AuthorityRegistry.intern(List.of("user", "admin")), authoritySet);
+        Assertions.assertSame(AuthoritySet.EMPTY, AuthorityRegistry.intern(Arrays.asList(null, null)));
+    }
+
+    @Test
+    @DisplayName("Given requirement match only sets with any of its authorities")
+    void givenRequirement_matches_anyAuthority() {
+        AuthorityRequirement requirement = AuthorityRegistry.requirement("admin", "editor");
+
+        Assertions.assertTrue(AuthorityRegistry.intern(List.of("user", "editor")).matches(requirement));
+        Assertions.assertTrue(AuthorityRegistry.intern(List.of("admin")).matches(requirement));
+        Assertions.assertFalse(AuthorityRegistry.intern(List.of("user")).matches(requirement));
+        Assertions.assertFalse(AuthorityRegistry.intern(List.of()).matches(requirement));
+    }
+
+    @Test
+    @DisplayName("Given authorities beyond the bitmask match them by name")
+    void givenManyAuthorities_matches_overflowByName() {
+        IntStream.range(0, AuthorityRegistry.MAX_BITS).forEach(i -> AuthorityRegistry.requirement("role-" + i));
+        AuthorityRequirement requirement = AuthorityRegistry.requirement("overflow-role");
+
+        Assertions.assertTrue(AuthorityRegistry.intern(List.of("overflow-role")).matches(requirement));
+        Assertions.assertFalse(AuthorityRegistry.intern(List.of("other-overflow-role")).matches(requirement));
+    }
+
+    @Test
+    @DisplayName("Given authentication the authorization manager decide with the authority set")
+    void givenAuthentication_decide_grantOrDeny() {
+        AuthorityMaskAuthorizationManager authorizationManager = new AuthorityMaskAuthorizationManager("admin");
+        EUser admin = EUser.builder().id(UUID.randomUUID()).authorities(List.of("admin")).build();
+        EUser user = EUser.builder().id(UUID.randomUUID()).authorities(List.of("user")).build();
+
+        Assertions.assertTrue(authorizationManager.decide(JwtAuthenticationToken.of(admin)).isGranted());
+        Assertions.assertFalse(authorizationManager.decide(JwtAuthenticationToken.of(user)).isGranted());
+        Assertions.assertTrue(authorizationManager.decide(new UsernamePasswordAuthenticationToken(admin, null,
+                AuthorityUtils.createAuthorityList("admin"))).isGranted());
+        Assertions.assertFalse(authorizationManager.decide(new AnonymousAuthenticationToken("key", "anonymous",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"))).isGranted());
+        Assertions.assertFalse(authorizationManager.decide(null).isGranted());
+        Assertions.assertEquals(1, JwtAuthenticationToken.of(admin).getAuthorities().size());
+    }
+}
@@ -0,0 +1,106 @@
+package it.magiavventure.jwt.authority;
+
+import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
+import it.magiavventure.mongo.entity.EUser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@DisplayName("Endpoint authorization manager tests")
+class EndpointAuthorizationManagerTest {
+
+    private static final Supplier<Authentication> ANONYMOUS = () -> null;
+
+    @Test
+    @DisplayName("Given endpoints decide by method and path")
+    void givenEndpoints_decide_byMethodAndPath() {
+        EndpointAuthorizationManager endpointAuthorizationManager = new EndpointAuthorizationManager(List.of(
+                endpoint("DELETE", "/story/**", "admin"),
+                endpoint("GET", "/story/**", false),
+                endpoint(null, "/user/me", true),
+                endpoint(null, "/public/**", false)), true);
+        Supplier<Authentication> user = authentication("user");
+        Supplier<Authentication> admin = authentication("admin");
+
+        Assertions.assertTrue(endpointAuthorizationManager.decide("GET", "/story/1", ANONYMOUS).isGranted());
+        Assertions.assertFalse(endpointAuthorizationManager.decide("DELETE", "/story/1", user).isGranted());
+        Assertions.assertTrue(endpointAuthorizationManager.decide("DELETE", "/story/1", admin).isGranted());
+        Assertions.assertFalse(endpointAuthorizationManager.decide("POST", "/story/1", ANONYMOUS).isGranted());
+        Assertions.assertTrue(endpointAuthorizationManager.decide("POST", "/story/1", user).isGranted());
+        Assertions.assertFalse(endpointAuthorizationManager.decide("GET", "/user/me", ANONYMOUS).isGranted());
+        Assertions.assertTrue(endpointAuthorizationManager.decide("GET", "/user/me", user).isGranted());
+        Assertions.assertTrue(endpointAuthorizationManager.decide("PUT", "/public/a/b", ANONYMOUS).isGranted());
+        Assertions.assertFalse(endpointAuthorizationManager.decide("GET", "/other", ANONYMOUS).isGranted());
+    }
+
+    @Test
+    @DisplayName("Given shadowed endpoint strict validation throw exception")
+    void givenShadowedEndpoint_strictValidation_throwException() {
+        List<EndpointProperties> endpoints = List.of(
+                endpoint(null, "/story/**", true),
+                endpoint("GET", "/story/public", false));
+
+        IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+                () -> new EndpointAuthorizationManager(endpoints, true));
+
+        Assertions.assertTrue(exception.getMessage().contains("shadowed"));
+        Assertions.assertDoesNotThrow(() -> new EndpointAuthorizationManager(endpoints, false));
+    }
+
+    @Test
+    @DisplayName("Given overlapping endpoints with different rules strict validation throw exception")
+    void givenOverlappingEndpoints_strictValidation_throwException() {
+        List<EndpointProperties> endpoints = List.of(
+                endpoint(null, "/story/*/comments", true),
+                endpoint(null, "/story/1/*", false));
+
+        IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+                () -> new EndpointAuthorizationManager(endpoints, true));
+
+        Assertions.assertTrue(exception.getMessage().contains("overlaps"));
+        Assertions.assertDoesNotThrow(() -> new EndpointAuthorizationManager(List.of(
+                endpoint(null, "/story/admin/**", "admin"),
+                endpoint("GET", "/user/**", false),
+                endpoint("POST", "/user/**", true)), true));
+    }
+
+    @Test
+    @DisplayName("Given endpoint without path throw a configuration exception")
+    void givenEndpointWithoutPath_validation_throwException() {
+        List<EndpointProperties> endpoints = List.of(
+                endpoint(null, "/story/**", true),
+                endpoint("GET", null, false));
+
+        IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+                () -> new EndpointAuthorizationManager(endpoints, false));
+
+        Assertions.assertEquals("Invalid endpoints configuration: endpoint 1 (GET) has no path",
+                exception.getMessage());
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> new EndpointAuthorizationManager(endpoints, false, false));
+    }
+
+    private Supplier<Authentication> authentication(String authority) {
+        EUser eUser = EUser.builder().id(UUID.randomUUID()).authorities(List.of(authority)).build();
+        return () -> JwtAuthenticationToken.of(eUser);
+    }
+
+    private EndpointProperties endpoint(String method, String path, String role) {
+        EndpointProperties endpointProperties = endpoint(method, path, true);
+        endpointProperties.setRoles(role == null ? null : new String[]{role});
+        return endpointProperties;
+    }
+
+    private EndpointProperties endpoint(String method, String path, boolean authenticated) {
+        EndpointProperties endpointProperties = new EndpointProperties();
+        endpointProperties.setMethod(method);
+        endpointProperties.setPath(path);
+        endpointProperties.setAuthenticated(authenticated);
+        return endpointProperties;
+    }
+}
@@ -0,0 +1,59 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.mongo.entity.EUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("App context holder tests")
+class AppContextHolderTest {
+
+    @AfterEach
+    void afterEach() {
+        AppContextHolder.clear();
+    }
+
+    @Test
+    @DisplayName("Given user and jwt the facade read the holder values")
+    void givenUserAndJwt_appContext_readHolder() {
+        EUser eUser = EUser.builder().id(UUID.randomUUID()).build();
+        AppContext appContext = new AppContext();
+
+        appContext.setJwt("jwt");
+        appContext.setUser(eUser);
+
+        Assertions.assertEquals("jwt", AppContextHolder.getJwt());
+        Assertions.assertEquals(eUser, AppContextHolder.getUser());
+        AppContextHolder.clear();
+        Assertions.assertNull(appContext.getUser());
+        Assertions.assertNull(appContext.getJwt());
+    }
+
+    @Test
+    @DisplayName("Given wrapped tasks the values are propagated to other threads")
+    void givenWrappedTasks_execute_propagateValues() throws Exception {
+        EUser eUser = EUser.builder().id(UUID.randomUUID()).build();
+        AppContextHolder.set("jwt", eUser);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<EUser> wrappedCallable = executorService.submit(AppContextHolder.wrap(AppContextHolder::getUser));
+            CompletableFuture<String> propagatedJwt = CompletableFuture
+                    .supplyAsync(AppContextHolder::getJwt, AppContextHolder.propagating(executorService));
+            Future<EUser> plainCallable = executorService.submit(AppContextHolder::getUser);
+
+            Assertions.assertEquals(eUser, wrappedCallable.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("jwt", propagatedJwt.get(5, TimeUnit.SECONDS));
+            Assertions.assertNull(plainCallable.get(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.model.Category;
+import it.magiavventure.mongo.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.aot.test.agent.EnabledIfRuntimeHintsAgent;
+import org.springframework.aot.test.agent.RuntimeHintsInvocations;
+import org.springframework.aot.test.agent.RuntimeHintsRecorder;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Jwt runtime hints tests")
+class JwtRuntimeHintsTest {
+
+    private static final String SECRET = "cXVlc3RhIMOoIGxhIGZha2Ugc2VjcmV0IHBlciBnZW5lcmFyZSBpIHRva2" +
+            "VuIG5laSB0ZXN0IGRpIG1hZ2lhdnZlbnR1cmUsIGZhdGUgY29tZSB2b2xldGU=";
+
+    private final List<RuntimeHintsRegistrar> registrars = SpringFactoriesLoader
+            .forResourceLocation("META-INF/spring/aot.factories")
+            .load(RuntimeHintsRegistrar.class);
+
+    @Test
+    @DisplayName("Given aot factories the registrar is loaded")
+    void givenAotFactories_load_containRegistrar() {
+        Assertions.assertTrue(registrars.stream().anyMatch(JwtRuntimeHints.class::isInstance));
+    }
+
+    @Test
+    @EnabledIfRuntimeHintsAgent
+    @DisplayName("Given the runtime hints agent the jjwt reflection and resource calls are covered")
+    void givenRuntimeHintsAgent_buildAndExtract_covered() {
+        RuntimeHints hints = registerHints();
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .name("name")
+                .preferredCategories(List.of(Category.builder().id(UUID.randomUUID()).name("name").build()))
+                .authorities(List.of("user"))
+                .build();
+
+        RuntimeHintsInvocations invocations = RuntimeHintsRecorder.record(() -> {
+            JwtService jwtService = new JwtService(buildJwtProperties(), null);
+            EUser eUser = jwtService.extractUser(jwtService.buildJwt(user));
+            Assertions.assertEquals(user.getId(), eUser.getId());
+        });
+
+        assertThat(invocations).match(hints);
+    }
+
+    @Test
+    @DisplayName("Given hints the programmatically bound properties are covered")
+    void givenHints_bindingTypes_covered() throws NoSuchMethodException {
+        RuntimeHints hints = registerHints();
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(JwtProperties.class).test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(JwtProperties.RulesProperties.class.getMethod("setFile", String.class)).test(hints));
+    }
+
+    private RuntimeHints registerHints() {
+        RuntimeHints runtimeHints = new RuntimeHints();
+        registrars.forEach(registrar -> registrar.registerHints(runtimeHints, getClass().getClassLoader()));
+        return runtimeHints;
+    }
+
+    private static JwtProperties buildJwtProperties() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setHeader("mg-a-token");
+        jwtProperties.setValidity(30L);
+        jwtProperties.setStateless(true);
+        return jwtProperties;
+    }
+}
@@ -0,0 +1,68 @@
+package it.magiavventure.jwt.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.magiavventure.common.configuration.CommonProperties;
+import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties;
+import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties.ErrorMessage;
+import it.magiavventure.common.error.handler.DefaultExceptionHandler;
+import it.magiavventure.common.mapper.HttpErrorMapper;
+import it.magiavventure.common.model.HttpError;
+import it.magiavventure.jwt.filter.JwtAuthenticationFilter;
+import it.magiavventure.jwt.service.JwtService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.web.access.AccessDeniedHandler;
+
+import java.util.Map;
+
+@DisplayName("Security config tests")
+class SecurityConfigTest {
+
+    @Test
+    @DisplayName("Given access denied the handler writes a 403 access-denied response")
+    void givenAccessDenied_accessDeniedHandler_writeForbidden() throws Exception {
+        JwtProperties jwtProperties = buildJwtProperties();
+        JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(
+                new JwtService(jwtProperties, null), jwtProperties, buildDefaultExceptionHandler());
+        AccessDeniedHandler accessDeniedHandler = SecurityConfig.accessDeniedHandler(jwtAuthenticationFilter);
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/api/admin/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        accessDeniedHandler.handle(request, response, new AccessDeniedException("denied"));
+
+        Assertions.assertEquals(403, response.getStatus());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        HttpError error = new ObjectMapper().readValue(response.getContentAsByteArray(), HttpError.class);
+        Assertions.assertEquals("access-denied", error.getCode());
+        Assertions.assertEquals(403, error.getStatus());
+    }
+
+    private JwtProperties buildJwtProperties() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("cXVlc3RhIMOoIGxhIGZha2Ugc2VjcmV0IHBlciBnZW5lcmFyZSBpIHRva2" +
+                "VuIG5laSB0ZXN0IGRpIG1hZ2lhdnZlbnR1cmUsIGZhdGUgY29tZSB2b2xldGU=");
+        jwtProperties.setHeader("mg-a-token");
+        jwtProperties.setValidity(30L);
+        return jwtProperties;
+    }
+
+    private DefaultExceptionHandler buildDefaultExceptionHandler() {
+        CommonProperties commonProperties = new CommonProperties();
+        ErrorsProperties errorsProperties = new ErrorsProperties();
+        errorsProperties.setJwtErrorsMessages(Map.of("access-denied", ErrorMessage
+                .builder()
+                .code("access-denied")
+                .description("accesso negato")
+                .message("accesso negato")
+                .status(403)
+                .build()));
+        commonProperties.setErrors(errorsProperties);
+        return new DefaultExceptionHandler(commonProperties, Mappers.getMapper(HttpErrorMapper.class));
+    }
+}
@@ -0,0 +1,57 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.mongo.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@DisplayName("Security rules config tests")
+class SecurityRulesConfigTest {
+
+    private static final String SECRET = "cXVlc3RhIMOoIGxhIGZha2Ugc2VjcmV0IHBlciBnZW5lcmFyZSBpIHRva2" +
+            "VuIG5laSB0ZXN0IGRpIG1hZ2lhdnZlbnR1cmUsIGZhdGUgY29tZSB2b2xldGU=";
+    private static final String ROTATED_SECRET = "dW4gYWx0cm8gc2VncmV0byBkaSB0ZXN0IHBlciBsYSByb3RhemlvbmUgZGVsbGUg" +
+            "Y2hpYXZpIGRpIG1hZ2lhdnZlbnR1cmUgc2VuemEgcmlhdnZpbw==";
+
+    @Test
+    @DisplayName("Given a rotated secret in the environment the key ring is reloaded")
+    void givenRotatedSecret_environmentChange_reloadKeyRing() {
+        Map<String, Object> properties = new HashMap<>(Map.of("magiavventure.lib.jwt.secret", SECRET,
+                "magiavventure.lib.jwt.header", "mg-a-token", "magiavventure.lib.jwt.validity", "30"));
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setHeader("mg-a-token");
+        jwtProperties.setValidity(30L);
+        jwtProperties.setStateless(true);
+        JwtService jwtService = new JwtService(jwtProperties, null);
+        ApplicationListener<EnvironmentChangeEvent> listener = new SecurityRulesConfig.RefreshConfig()
+                .keyRingRefreshListener(new StaticListableBeanFactory(Map.of("jwtService", jwtService))
+                        .getBeanProvider(JwtService.class), environment);
+        User user = User.builder().id(UUID.randomUUID()).name("name").authorities(List.of("user")).build();
+        String oldToken = jwtService.buildJwt(user);
+
+        properties.put("magiavventure.lib.jwt.secret", ROTATED_SECRET);
+        listener.onApplicationEvent(new EnvironmentChangeEvent(Set.of("magiavventure.lib.jwt.header")));
+        Assertions.assertEquals(user.getId(), jwtService.resolveUser(oldToken).getId());
+        listener.onApplicationEvent(new EnvironmentChangeEvent(Set.of("magiavventure.lib.jwt.secret")));
+
+        Assertions.assertThrows(MagiavventureException.class, () -> jwtService.resolveUser(oldToken));
+        Assertions.assertEquals(user.getId(), jwtService.resolveUser(jwtService.buildJwt(user)).getId());
+        jwtService.destroy();
+    }
+}
@@ -0,0 +1,133 @@
+package it.magiavventure.jwt.config;
+
+import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@DisplayName("Security rules registry tests")
+class SecurityRulesRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Given refreshed properties swap excluded endpoints")
+    void givenRefreshedProperties_refresh_swapExcludedEndpoints() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setExcludedEndpoints(List.of(endpoint("/public/**", false)));
+        SecurityRulesRegistry securityRulesRegistry = new SecurityRulesRegistry(jwtProperties);
+        SecurityRules previous = securityRulesRegistry.current();
+        JwtProperties refreshedProperties = new JwtProperties();
+        refreshedProperties.setExcludedEndpoints(List.of(endpoint("/health", false)));
+
+        Assertions.assertTrue(securityRulesRegistry.refresh(refreshedProperties));
+
+        Assertions.assertNotSame(previous, securityRulesRegistry.current());
+        Assertions.assertTrue(previous.excludedEndpoints().matches("GET", "/public/a"));
+        Assertions.assertFalse(securityRulesRegistry.current().excludedEndpoints().matches("GET", "/public/a"));
+        Assertions.assertTrue(securityRulesRegistry.current().excludedEndpoints().matches("GET", "/health"));
+    }
+
+    @Test
+    @DisplayName("Given invalid refreshed properties keep the previous rules")
+    void givenInvalidRefreshedProperties_refresh_keepPreviousRules() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setStrictEndpoints(true);
+        jwtProperties.setEndpoints(List.of(endpoint("/story/**", true)));
+        SecurityRulesRegistry securityRulesRegistry = new SecurityRulesRegistry(jwtProperties);
+        SecurityRules previous = securityRulesRegistry.current();
+        JwtProperties refreshedProperties = new JwtProperties();
+        refreshedProperties.setEndpoints(List.of(endpoint("/story/**", true), endpoint(null, false)));
+
+        Assertions.assertFalse(securityRulesRegistry.refresh(refreshedProperties));
+
+        Assertions.assertSame(previous, securityRulesRegistry.current());
+    }
+
+    @Test
+    @DisplayName("Given rules file load and reload the rules from the file")
+    void givenRulesFile_refresh_reloadRulesFromFile() throws IOException {
+        Path rulesFile = tempDir.resolve("rules.yml");
+        writeExcludedEndpoint(rulesFile, "/public/**");
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getRules().setFile(rulesFile.toString());
+        jwtProperties.getRules().setReloadInterval(Duration.ZERO);
+        SecurityRulesRegistry securityRulesRegistry = new SecurityRulesRegistry(jwtProperties);
+
+        Assertions.assertTrue(securityRulesRegistry.current().excludedEndpoints().matches("GET", "/public/a"));
+
+        writeExcludedEndpoint(rulesFile, "/health");
+        Assertions.assertTrue(securityRulesRegistry.refresh(new JwtProperties()));
+
+        Assertions.assertFalse(securityRulesRegistry.current().excludedEndpoints().matches("GET", "/public/a"));
+        Assertions.assertTrue(securityRulesRegistry.current().excludedEndpoints().matches("GET", "/health"));
+        securityRulesRegistry.destroy();
+    }
+
+    @Test
+    @DisplayName("Given environment removing the excluded endpoints drop them")
+    void givenRemovedEnvironmentProperty_refresh_dropRules() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setExcludedEndpoints(List.of(endpoint("/public/**", false)));
+        jwtProperties.setEndpoints(List.of(endpoint("/story/**", true)));
+        SecurityRulesRegistry securityRulesRegistry = new SecurityRulesRegistry(jwtProperties);
+        List<ConfigurationPropertySource> sources = List.of(new MapConfigurationPropertySource(
+                Map.of("magiavventure.lib.jwt.header", "mg-a-token")));
+
+        Assertions.assertTrue(securityRulesRegistry.refresh(sources, Set.of("magiavventure.lib.jwt.header")));
+        Assertions.assertTrue(securityRulesRegistry.current().excludedEndpoints().matches("GET", "/public/a"));
+
+        Assertions.assertTrue(securityRulesRegistry.refresh(sources,
+                Set.of("magiavventure.lib.jwt.excluded-endpoints[0].path")));
+        Assertions.assertFalse(securityRulesRegistry.current().excludedEndpoints().matches("GET", "/public/a"));
+    }
+
+    @Test
+    @DisplayName("Given rules file with empty excluded endpoints override the environment ones")
+    void givenEmptyRulesFileProperty_refresh_overrideEnvironment() throws IOException {
+        Path rulesFile = tempDir.resolve("rules.yml");
+        Files.writeString(rulesFile, """
+                magiavventure:
+                  lib:
+                    jwt:
+                      excluded-endpoints: []
+                """);
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setExcludedEndpoints(List.of(endpoint("/public/**", false)));
+        jwtProperties.getRules().setFile(rulesFile.toString());
+        jwtProperties.getRules().setReloadInterval(Duration.ZERO);
+        SecurityRulesRegistry securityRulesRegistry = new SecurityRulesRegistry(jwtProperties);
+
+        Assertions.assertFalse(securityRulesRegistry.current().excludedEndpoints().matches("GET", "/public/a"));
+        securityRulesRegistry.destroy();
+    }
+
+    private static void writeExcludedEndpoint(Path rulesFile, String path) throws IOException {
+        Files.writeString(rulesFile, """
+                magiavventure:
+                  lib:
+                    jwt:
+                      excluded-endpoints:
+                        - path: "%s"
+                """.formatted(path));
+    }
+
+    private static EndpointProperties endpoint(String path, boolean authenticated) {
+        EndpointProperties endpoint = new EndpointProperties();
+        endpoint.setPath(path);
+        endpoint.setAuthenticated(authenticated);
+        return endpoint;
+    }
+}
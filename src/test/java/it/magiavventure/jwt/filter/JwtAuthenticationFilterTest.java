@@ -4,12 +4,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import it.magiavventure.common.configuration.CommonProperties;
 import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties;
 import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties.ErrorMessage;
+import it.magiavventure.common.error.MagiavventureException;
 import it.magiavventure.common.error.handler.DefaultExceptionHandler;
 import it.magiavventure.common.mapper.HttpErrorMapper;
 import it.magiavventure.common.model.HttpError;
+import it.magiavventure.jwt.audit.AuditLog;
+import it.magiavventure.jwt.config.AppContextHolder;
 import it.magiavventure.jwt.config.JwtProperties;
 import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
-import it.magiavventure.jwt.config.AppContext;
+import it.magiavventure.jwt.error.JwtException;
+import it.magiavventure.jwt.metrics.JwtMetrics;
 import it.magiavventure.jwt.service.JwtService;
 import it.magiavventure.jwt.service.UserJwtService;
 import it.magiavventure.mongo.entity.EUser;
@@ -20,8 +24,13 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mapstruct.factory.Mappers;
 import org.mockito.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -29,6 +38,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,17 +50,17 @@ import java.util.UUID;
 class JwtAuthenticationFilterTest {
 
     private JwtAuthenticationFilter jwtAuthenticationFilter;
+    private DefaultExceptionHandler defaultExceptionHandler;
     private final UserJwtService userJwtService = Mockito.mock(UserJwtService.class);
 
     @BeforeEach
     void beforeEach() {
         JwtProperties jwtProperties = buildJwtProperties();
-        AppContext appContext = new AppContext();
         JwtService jwtService = new JwtService(jwtProperties, userJwtService);
-        DefaultExceptionHandler defaultExceptionHandler = new DefaultExceptionHandler(buildCommonProperties(),
+        this.defaultExceptionHandler = new DefaultExceptionHandler(buildCommonProperties(),
                 Mappers.getMapper(HttpErrorMapper.class));
         this.jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtService, jwtProperties,
-                defaultExceptionHandler, appContext);
+                defaultExceptionHandler);
     }
 
     @Test
@@ -83,6 +94,75 @@ class JwtAuthenticationFilterTest {
                 .ifPresent(authority -> Assertions.assertEquals("user", authority.getAuthority()));
     }
 
+    @Test
+    @DisplayName("Given a valid jwt the app context holder is set during the chain and cleared after")
+    void givenValidJwt_chainDoFilter_setAndClearAppContextHolder() throws ServletException, IOException {
+        UUID id = UUID.randomUUID();
+        String token = buildToken(buildUser(id), false);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("mg-a-token", token);
+        List<EUser> usersInChain = new ArrayList<>();
+
+        Mockito.when(userJwtService.retrieveById(id))
+                .thenReturn(buildEUser(id));
+
+        jwtAuthenticationFilter.doFilterInternal(request, new MockHttpServletResponse(),
+                (filterRequest, filterResponse) -> {
+                    Assertions.assertEquals(token, AppContextHolder.getJwt());
+                    usersInChain.add(AppContextHolder.getUser());
+                });
+
+        Assertions.assertEquals(1, usersInChain.size());
+        Assertions.assertEquals(id, usersInChain.get(0).getId());
+        Assertions.assertNull(AppContextHolder.getUser());
+    }
+
+    @Test
+    @DisplayName("Given an exception thrown by the chain filter let it propagate")
+    void givenChainException_chainDoFilter_propagate() {
+        UUID id = UUID.randomUUID();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("mg-a-token", buildToken(buildUser(id), false));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MagiavventureException ownership = MagiavventureException.of(JwtException.OWNERSHIP);
+
+        Mockito.when(userJwtService.retrieveById(id))
+                .thenReturn(buildEUser(id));
+
+        MagiavventureException exception = Assertions.assertThrows(MagiavventureException.class,
+                () -> jwtAuthenticationFilter.doFilterInternal(request, response, (filterRequest, filterResponse) -> {
+                    throw ownership;
+                }));
+
+        Assertions.assertSame(ownership, exception);
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertNull(AppContextHolder.getUser());
+    }
+
+    @Test
+    @DisplayName("Given a jwt inside the renewal window filter set the renewal header")
+    void givenJwtInsideRenewalWindow_chainDoFilter_setRenewalHeader() throws ServletException, IOException {
+        JwtProperties jwtProperties = buildJwtProperties();
+        jwtProperties.getRenewal().setEnabled(true);
+        jwtProperties.getRenewal().setWindow(Duration.ofHours(1));
+        JwtService jwtService = new JwtService(jwtProperties, userJwtService);
+        JwtAuthenticationFilter renewalFilter = new JwtAuthenticationFilter(jwtService, jwtProperties,
+                new DefaultExceptionHandler(buildCommonProperties(), Mappers.getMapper(HttpErrorMapper.class)));
+        UUID id = UUID.randomUUID();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("mg-a-token", jwtService.buildJwt(buildUser(id)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Mockito.when(userJwtService.retrieveById(id))
+                .thenReturn(buildEUser(id));
+
+        renewalFilter.doFilterInternal(request, response, new MockFilterChain());
+
+        String renewedToken = response.getHeader("mg-a-token-renewed");
+        Assertions.assertNotNull(renewedToken);
+        Assertions.assertEquals(id.toString(), jwtService.parseJwtClaims(renewedToken).getSubject());
+    }
+
     @Test
     @DisplayName("Given an expired jwt filter throw exception with code not-authenticated")
     void givenExpiredJwt_throwExpiredException_ok() throws ServletException, IOException {
@@ -124,6 +204,82 @@ class JwtAuthenticationFilterTest {
         Assertions.assertEquals(401, error.getStatus());
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {JwtException.NOT_AUTHENTICATED, JwtException.ACCESS_DENIED, JwtException.OWNERSHIP})
+    @DisplayName("Given a mapped jwt error the filter writes the pre-rendered response")
+    void givenMappedError_writeError_writePreRenderedBody(String key) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity<HttpError> expected = defaultExceptionHandler.handleException(MagiavventureException.of(key));
+
+        jwtAuthenticationFilter.writeError(response, MagiavventureException.of(key));
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        jwtAuthenticationFilter.writeError(secondResponse, MagiavventureException.of(key));
+
+        byte[] expectedBody = new ObjectMapper().writeValueAsBytes(expected.getBody());
+        Assertions.assertEquals(expected.getStatusCode().value(), response.getStatus());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        Assertions.assertEquals(expectedBody.length, response.getContentLength());
+        Assertions.assertArrayEquals(expectedBody, response.getContentAsByteArray());
+        Assertions.assertArrayEquals(expectedBody, secondResponse.getContentAsByteArray());
+        Assertions.assertEquals(key, new ObjectMapper().readValue(response.getContentAsByteArray(), HttpError.class)
+                .getCode());
+    }
+
+    @Test
+    @DisplayName("Given an unmapped error key the filter renders the response on demand")
+    void givenUnmappedError_writeError_renderOnDemand() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MagiavventureException unmappedException = MagiavventureException.of("unmapped-error");
+        ResponseEntity<HttpError> expected = defaultExceptionHandler.handleException(unmappedException);
+
+        jwtAuthenticationFilter.writeError(response, unmappedException);
+
+        byte[] expectedBody = new ObjectMapper().writeValueAsBytes(expected.getBody());
+        Assertions.assertEquals(418, response.getStatus());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        Assertions.assertEquals(expectedBody.length, response.getContentLength());
+        Assertions.assertArrayEquals(expectedBody, response.getContentAsByteArray());
+        Assertions.assertEquals("unmapped-error", new ObjectMapper()
+                .readValue(response.getContentAsByteArray(), HttpError.class).getCode());
+    }
+
+    @Test
+    @DisplayName("Given access denied the filter writes the access-denied error")
+    void givenAccessDenied_writeError_forbidden() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        jwtAuthenticationFilter.writeError(response, MagiavventureException.of(JwtException.ACCESS_DENIED));
+
+        Assertions.assertEquals(403, response.getStatus());
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpError error = objectMapper.readValue(response.getContentAsByteArray(), HttpError.class);
+        Assertions.assertEquals("access-denied", error.getCode());
+        Assertions.assertEquals(403, error.getStatus());
+    }
+
+    @Test
+    @DisplayName("Given access denied the filter records the outcome before writing the error")
+    void givenAccessDenied_accessDenied_recordOutcome() throws IOException {
+        JwtProperties jwtProperties = buildJwtProperties();
+        JwtMetrics jwtMetrics = Mockito.mock(JwtMetrics.class);
+        AuditLog auditLog = Mockito.mock(AuditLog.class);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("jwtMetrics", jwtMetrics,
+                "auditLog", auditLog));
+        JwtService jwtService = new JwtService(jwtProperties, userJwtService,
+                beanFactory.getBeanProvider(JwtMetrics.class), null, null,
+                beanFactory.getBeanProvider(AuditLog.class));
+        JwtAuthenticationFilter recordingFilter = new JwtAuthenticationFilter(jwtService, jwtProperties,
+                new DefaultExceptionHandler(buildCommonProperties(), Mappers.getMapper(HttpErrorMapper.class)));
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/api/admin/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        recordingFilter.accessDenied(request, response);
+
+        Assertions.assertEquals(403, response.getStatus());
+        Mockito.verify(jwtMetrics).outcome(JwtException.ACCESS_DENIED);
+        Mockito.verify(auditLog).publish(null, JwtException.ACCESS_DENIED, "DELETE", "/api/admin/1");
+    }
+
     @Test
     @DisplayName("Path should not filter return true")
     void givenRequest_pathShouldNotFilter_returnTrue() {
@@ -210,6 +366,27 @@ class JwtAuthenticationFilterTest {
                         .message("non autenticato")
                         .status(401)
                 .build());
+        jwtErrors.put("access-denied", ErrorMessage
+                .builder()
+                        .code("access-denied")
+                        .description("accesso negato")
+                        .message("accesso negato")
+                        .status(403)
+                .build());
+        jwtErrors.put("ownership", ErrorMessage
+                .builder()
+                        .code("ownership")
+                        .description("non proprietario")
+                        .message("non proprietario")
+                        .status(403)
+                .build());
+        jwtErrors.put("unmapped-error", ErrorMessage
+                .builder()
+                        .code("unmapped-error")
+                        .description("errore non pre-renderizzato")
+                        .message("errore non pre-renderizzato")
+                        .status(418)
+                .build());
         errorsProperties.setJwtErrorsMessages(jwtErrors);
         commonProperties.setErrors(errorsProperties);
         return commonProperties;
@@ -0,0 +1,160 @@
+package it.magiavventure.jwt.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.magiavventure.common.configuration.CommonProperties;
+import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties;
+import it.magiavventure.common.configuration.CommonProperties.ErrorsProperties.ErrorMessage;
+import it.magiavventure.common.error.handler.DefaultExceptionHandler;
+import it.magiavventure.common.mapper.HttpErrorMapper;
+import it.magiavventure.common.model.HttpError;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.JwtProperties.EndpointProperties;
+import it.magiavventure.jwt.config.ReactiveAppContext;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.jwt.service.ReactiveUserJwtService;
+import it.magiavventure.jwt.service.UserJwtService;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mockito;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+@DisplayName("Jwt authentication web filter tests")
+class JwtAuthenticationWebFilterTest {
+
+    private JwtAuthenticationWebFilter jwtAuthenticationWebFilter;
+    private final UserJwtService userJwtService = Mockito.mock(UserJwtService.class);
+
+    @BeforeEach
+    void beforeEach() {
+        JwtProperties jwtProperties = buildJwtProperties();
+        JwtService jwtService = new JwtService(jwtProperties, userJwtService);
+        DefaultExceptionHandler defaultExceptionHandler = new DefaultExceptionHandler(buildCommonProperties(),
+                Mappers.getMapper(HttpErrorMapper.class));
+        this.jwtAuthenticationWebFilter = new JwtAuthenticationWebFilter(jwtService,
+                new ReactiveUserJwtService(userJwtService, Schedulers.immediate()), jwtProperties,
+                defaultExceptionHandler);
+    }
+
+    @Test
+    @DisplayName("Given a valid jwt filter expose user in reactor context")
+    void givenValidJwt_chainFilter_ok() {
+        UUID id = UUID.randomUUID();
+        User user = User.builder().id(id).name("name").authorities(List.of("user")).build();
+        EUser eUser = EUser.builder().id(id).name("name").authorities(List.of("user")).build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/secured")
+                .header("mg-a-token", buildToken(user, false)));
+        AtomicReference<EUser> contextUser = new AtomicReference<>();
+        AtomicReference<SecurityContext> securityContext = new AtomicReference<>();
+        WebFilterChain chain = filterExchange -> ReactiveAppContext.getUser()
+                .doOnNext(contextUser::set)
+                .then(ReactiveSecurityContextHolder.getContext())
+                .doOnNext(securityContext::set)
+                .then();
+
+        Mockito.when(userJwtService.retrieveById(id))
+                .thenReturn(eUser);
+
+        StepVerifier.create(jwtAuthenticationWebFilter.filter(exchange, chain))
+                .verifyComplete();
+
+        Mockito.verify(userJwtService).retrieveById(id);
+        Assertions.assertEquals(eUser, contextUser.get());
+        Assertions.assertNotNull(securityContext.get());
+        Assertions.assertEquals(eUser, securityContext.get().getAuthentication().getPrincipal());
+        Assertions.assertEquals("user", securityContext.get().getAuthentication().getAuthorities()
+                .iterator().next().getAuthority());
+    }
+
+    @Test
+    @DisplayName("Given an expired jwt filter write error with code not-authenticated")
+    void givenExpiredJwt_writeNotAuthenticated_ok() throws Exception {
+        User user = User.builder().id(UUID.randomUUID()).name("name").authorities(List.of("user")).build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/secured")
+                .header("mg-a-token", buildToken(user, true)));
+        AtomicBoolean chainCalled = new AtomicBoolean();
+        WebFilterChain chain = filterExchange -> Mono.fromRunnable(() -> chainCalled.set(true));
+
+        StepVerifier.create(jwtAuthenticationWebFilter.filter(exchange, chain))
+                .verifyComplete();
+
+        Assertions.assertFalse(chainCalled.get());
+        Assertions.assertNotNull(exchange.getResponse().getStatusCode());
+        Assertions.assertEquals(401, exchange.getResponse().getStatusCode().value());
+        String body = exchange.getResponse().getBodyAsString().block();
+        HttpError error = new ObjectMapper().readValue(body, HttpError.class);
+        Assertions.assertEquals("not-authenticated", error.getCode());
+        Assertions.assertEquals(401, error.getStatus());
+    }
+
+    @Test
+    @DisplayName("Given an excluded endpoint filter skip authentication")
+    void givenExcludedEndpoint_chainFilter_withoutAuthentication() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/path"));
+        AtomicBoolean chainCalled = new AtomicBoolean();
+        WebFilterChain chain = filterExchange -> Mono.fromRunnable(() -> chainCalled.set(true));
+
+        StepVerifier.create(jwtAuthenticationWebFilter.filter(exchange, chain))
+                .verifyComplete();
+
+        Assertions.assertTrue(chainCalled.get());
+        Mockito.verifyNoInteractions(userJwtService);
+    }
+
+    private String buildToken(User user, boolean expired) {
+        JwtProperties jwtProperties = buildJwtProperties();
+        if(expired)
+            jwtProperties.setValidity(0L);
+        JwtService jwtService = new JwtService(jwtProperties, Mockito.mock(UserJwtService.class));
+        return jwtService.buildJwt(user);
+    }
+
+    private JwtProperties buildJwtProperties() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("cXVlc3RhIMOoIGxhIGZha2Ugc2VjcmV0IHBlciBnZW5lcmFyZSBpIHRva2" +
+                "VuIG5laSB0ZXN0IGRpIG1hZ2lhdnZlbnR1cmUsIGZhdGUgY29tZSB2b2xldGU=");
+        jwtProperties.setHeader("mg-a-token");
+        jwtProperties.setValidity(30L);
+        EndpointProperties endpointProperties = new EndpointProperties();
+        endpointProperties.setPath("/path");
+        endpointProperties.setMethod("GET");
+        jwtProperties.setExcludedEndpoints(List.of(endpointProperties));
+        return jwtProperties;
+    }
+
+    private CommonProperties buildCommonProperties() {
+        CommonProperties commonProperties = new CommonProperties();
+        ErrorsProperties errorsProperties = new ErrorsProperties();
+        Map<String, ErrorMessage> jwtErrors = new HashMap<>();
+        jwtErrors.put("not-authenticated", ErrorMessage
+                .builder()
+                        .code("not-authenticated")
+                        .description("non autenticato")
+                        .message("non autenticato")
+                        .status(401)
+                .build());
+        errorsProperties.setJwtErrorsMessages(jwtErrors);
+        commonProperties.setErrors(errorsProperties);
+        return commonProperties;
+    }
+}
@@ -0,0 +1,171 @@
+package it.magiavventure.jwt.key;
+
+import io.jsonwebtoken.Jwts;
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.config.JwtProperties.HmacKeyProperties;
+import it.magiavventure.jwt.config.JwtProperties.PublicKeyProperties;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.jwt.service.UserJwtService;
+import it.magiavventure.mongo.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@DisplayName("Key ring tests")
+class KeyRingTest {
+
+    private static final String SECRET = "cXVlc3RhIMOoIGxhIGZha2Ugc2VjcmV0IHBlciBnZW5lcmFyZSBpIHRva2" +
+            "VuIG5laSB0ZXN0IGRpIG1hZ2lhdnZlbnR1cmUsIGZhdGUgY29tZSB2b2xldGU=";
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    @DisplayName("Given signing kid build token with kid header and parse it")
+    void givenSigningKid_buildAndParse_ok() {
+        JwtProperties jwtProperties = buildJwtProperties();
+        jwtProperties.getKeyRing().setSigningKeyId("k1");
+        JwtService jwtService = new JwtService(jwtProperties, Mockito.mock(UserJwtService.class));
+        User user = buildUser();
+
+        String token = jwtService.buildJwt(user);
+
+        Assertions.assertEquals("k1", Jwts.parser().keyLocator(jwtService.getKeyRing()).build()
+                .parseSignedClaims(token).getHeader().getKeyId());
+        Assertions.assertEquals(user.getId().toString(), jwtService.parseJwtClaims(token).getSubject());
+    }
+
+    @Test
+    @DisplayName("Given rotated signing key keep old tokens valid until the key is removed")
+    void givenRotatedSigningKey_reload_oldTokensValidUntilRemoved() {
+        JwtProperties jwtProperties = buildJwtProperties();
+        jwtProperties.getKeyRing().setSigningKeyId("k1");
+        JwtService jwtService = new JwtService(jwtProperties, Mockito.mock(UserJwtService.class));
+        User user = buildUser();
+        String oldToken = jwtService.buildJwt(user);
+
+        jwtProperties.getKeyRing().setSigningKeyId("k2");
+        jwtService.getKeyRing().reload();
+        String newToken = jwtService.buildJwt(user);
+
+        Assertions.assertEquals("k2", jwtService.getKeyRing().getSigningKey().keyId());
+        Assertions.assertNotNull(jwtService.parseJwtClaims(oldToken));
+        Assertions.assertNotNull(jwtService.parseJwtClaims(newToken));
+
+        jwtProperties.getKeyRing().setHmac(new ArrayList<>(List.of(hmac("k2", SECRET + "k2"))));
+        jwtService.getKeyRing().reload();
+
+        Assertions.assertThrows(MagiavventureException.class, () -> jwtService.parseJwtClaims(oldToken));
+        Assertions.assertNotNull(jwtService.parseJwtClaims(newToken));
+    }
+
+    @Test
+    @DisplayName("Given token without kid verify it with the legacy secret")
+    void givenTokenWithoutKid_parse_withLegacySecret() {
+        JwtProperties legacyProperties = buildJwtProperties();
+        legacyProperties.getKeyRing().setHmac(new ArrayList<>());
+        String legacyToken = new JwtService(legacyProperties, Mockito.mock(UserJwtService.class))
+                .buildJwt(buildUser());
+        JwtProperties jwtProperties = buildJwtProperties();
+        jwtProperties.getKeyRing().setSigningKeyId("k1");
+        JwtService jwtService = new JwtService(jwtProperties, Mockito.mock(UserJwtService.class));
+
+        Assertions.assertNotNull(jwtService.parseJwtClaims(legacyToken));
+    }
+
+    @Test
+    @DisplayName("Given public key file verify RS256 token with its kid")
+    void givenPublicKeyFile_parseRsaToken_ok() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        Path publicKeyFile = tempDir.resolve("rsa.pem");
+        Files.writeString(publicKeyFile, "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder().encodeToString(keyPair.getPublic().getEncoded())
+                + "\n-----END PUBLIC KEY-----\n");
+        PublicKeyProperties publicKeyProperties = new PublicKeyProperties();
+        publicKeyProperties.setKid("rsa");
+        publicKeyProperties.setLocation(publicKeyFile.toString());
+        JwtProperties jwtProperties = buildJwtProperties();
+        jwtProperties.getKeyRing().setPublicKeys(List.of(publicKeyProperties));
+        JwtService jwtService = new JwtService(jwtProperties, Mockito.mock(UserJwtService.class));
+        String subject = UUID.randomUUID().toString();
+        String token = Jwts.builder()
+                .header().keyId("rsa").and()
+                .subject(subject)
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(keyPair.getPrivate())
+                .compact();
+
+        Assertions.assertEquals(subject, jwtService.parseJwtClaims(token).getSubject());
+    }
+
+    @Test
+    @DisplayName("Given unknown kid parse throw exception")
+    void givenUnknownKid_parse_throwException() {
+        JwtService jwtService = new JwtService(buildJwtProperties(), Mockito.mock(UserJwtService.class));
+        String token = Jwts.builder()
+                .header().keyId("unknown").and()
+                .subject("subject")
+                .signWith(KeyLoader.hmacKey(SECRET))
+                .compact();
+
+        MagiavventureException exception = Assertions.assertThrows(MagiavventureException.class,
+                () -> jwtService.parseJwtClaims(token));
+        Assertions.assertEquals("not-authenticated", exception.getError().getKey());
+    }
+
+    @Test
+    @DisplayName("Given signing kid without key fail at startup")
+    void givenSigningKidWithoutKey_buildKeyRing_throwException() {
+        JwtProperties jwtProperties = buildJwtProperties();
+        jwtProperties.getKeyRing().setSigningKeyId("missing");
+
+        Assertions.assertThrows(IllegalStateException.class, () -> new KeyRing(jwtProperties));
+    }
+
+    @Test
+    @DisplayName("Given invalid refreshed properties reload keep the previous keys")
+    void givenInvalidRefreshedProperties_reload_keepPreviousKeys() {
+        KeyRing keyRing = new KeyRing(buildJwtProperties());
+        JwtProperties refreshedProperties = buildJwtProperties();
+        refreshedProperties.getKeyRing().setSigningKeyId("missing");
+
+        Assertions.assertThrows(IllegalStateException.class, () -> keyRing.reload(refreshedProperties));
+        Assertions.assertEquals(Set.of("k1", "k2"), keyRing.getKeyIds());
+        Assertions.assertDoesNotThrow(() -> keyRing.reload());
+    }
+
+    private JwtProperties buildJwtProperties() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setHeader("mg-a-token");
+        jwtProperties.setValidity(30L);
+        jwtProperties.getKeyRing().setHmac(new ArrayList<>(List.of(hmac("k1", SECRET + "k1"),
+                hmac("k2", SECRET + "k2"))));
+        return jwtProperties;
+    }
+
+    private HmacKeyProperties hmac(String kid, String secret) {
+        HmacKeyProperties hmacKeyProperties = new HmacKeyProperties();
+        hmacKeyProperties.setKid(kid);
+        hmacKeyProperties.setSecret(secret);
+        return hmacKeyProperties;
+    }
+
+    private User buildUser() {
+        return User.builder().id(UUID.randomUUID()).name("name").authorities(List.of("user")).build();
+    }
+}
@@ -0,0 +1,71 @@
+package it.magiavventure.jwt.matcher;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+@DisplayName("Endpoint index tests")
+class EndpointIndexTest {
+
+    private final EndpointIndex<String> endpointIndex = EndpointIndex.<String>builder()
+            .add("GET", "/path", "literal")
+            .add("GET", "/api/public/**", "prefix")
+            .add("POST", "/api/users/{id}/avatar", "variable")
+            .add(null, "/actuator/**", "any-method")
+            .add("GET", "/api/**/docs", "deep-pattern")
+            .add("GET", "/**", "match-all")
+            .build();
+
+    @ParameterizedTest
+    @CsvSource({
+            "GET, /path, literal",
+            "GET, /api/public, prefix",
+            "GET, /api/public/stories/1, prefix",
+            "POST, /api/users/123/avatar, variable",
+            "DELETE, /actuator/health, any-method",
+            "GET, /api/v1/docs, deep-pattern",
+            "GET, /pathnew, match-all"
+    })
+    @DisplayName("Given method and path find the first matching rule")
+    void givenMethodAndPath_find_firstMatchingRule(String method, String path, String expected) {
+        Assertions.assertEquals(expected, endpointIndex.find(method, path));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "POST, /path",
+            "POST, /api/users/123",
+            "PUT, /api/public/stories",
+            "POST, /actuatorx"
+    })
+    @DisplayName("Given method and path without rule find nothing")
+    void givenMethodAndPathWithoutRule_find_null(String method, String path) {
+        Assertions.assertNull(endpointIndex.find(method, path));
+    }
+
+    @Test
+    @DisplayName("Given request match on servlet path and path info")
+    void givenRequest_matches_servletPathAndPathInfo() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setMethod("POST");
+        request.setServletPath("/api");
+        request.setPathInfo("/users/1/avatar");
+
+        Assertions.assertTrue(endpointIndex.matches(request));
+        Assertions.assertEquals("variable", endpointIndex.find(request));
+    }
+
+    @Test
+    @DisplayName("Given empty index never match")
+    void givenEmptyIndex_matches_false() {
+        EndpointIndex<String> emptyIndex = EndpointIndex.<String>builder().build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/path");
+        request.setServletPath("/path");
+
+        Assertions.assertFalse(emptyIndex.matches(request));
+        Assertions.assertEquals(0, emptyIndex.size());
+    }
+}
@@ -0,0 +1,118 @@
+package it.magiavventure.jwt.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.service.JwtService;
+import it.magiavventure.jwt.service.ReactiveUserJwtService;
+import it.magiavventure.jwt.service.UserJwtService;
+import it.magiavventure.mongo.entity.EUser;
+import it.magiavventure.mongo.model.User;
+import it.magiavventure.mongo.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@DisplayName("Micrometer jwt metrics tests")
+class MicrometerJwtMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MicrometerJwtMetrics jwtMetrics = new MicrometerJwtMetrics(meterRegistry);
+
+    @Test
+    @DisplayName("Given outcomes count them by code")
+    void givenOutcomes_outcome_countedByCode() {
+        jwtMetrics.outcome(JwtMetrics.AUTHENTICATED);
+        jwtMetrics.outcome("not-authenticated");
+        jwtMetrics.outcome("not-authenticated");
+        jwtMetrics.excluded();
+
+        Assertions.assertEquals(1, meterRegistry.get(MicrometerJwtMetrics.AUTHENTICATION_METRIC)
+                .tag("outcome", JwtMetrics.AUTHENTICATED).counter().count());
+        Assertions.assertEquals(2, meterRegistry.get(MicrometerJwtMetrics.AUTHENTICATION_METRIC)
+                .tag("outcome", "not-authenticated").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get(MicrometerJwtMetrics.EXCLUDED_METRIC).counter().count());
+    }
+
+    @Test
+    @DisplayName("Given user lookups and loads compute user cache hit ratio")
+    void givenLookupsAndLoads_userCacheHitRatio_ok() {
+        for (int i = 0; i < 4; i++) {
+            jwtMetrics.stop(JwtMetrics.USER_LOOKUP, jwtMetrics.start());
+        }
+        jwtMetrics.userLoaded();
+
+        Assertions.assertEquals(0.75, meterRegistry.get(MicrometerJwtMetrics.USER_CACHE_HIT_RATIO_METRIC)
+                .gauge().value(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Given jwt service with metrics time stages and token cache")
+    void givenJwtServiceWithMetrics_extractUser_recordStages() {
+        UserJwtService userJwtService = Mockito.mock(UserJwtService.class);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("jwtMetrics", jwtMetrics));
+        JwtService jwtService = new JwtService(buildJwtProperties(), userJwtService,
+                beanFactory.getBeanProvider(JwtMetrics.class), null, null);
+        User user = User.builder().id(UUID.randomUUID()).name("name").authorities(List.of("user")).build();
+        String token = jwtService.buildJwt(user);
+
+        Mockito.when(userJwtService.retrieveById(user.getId()))
+                .thenReturn(EUser.builder().id(user.getId()).build());
+
+        jwtService.extractUser(token);
+        jwtService.extractUser(token);
+        Assertions.assertThrows(MagiavventureException.class, () -> jwtService.extractUser("wrong"));
+
+        Assertions.assertEquals(1, meterRegistry.get(MicrometerJwtMetrics.STAGE_METRIC)
+                .tag("stage", JwtMetrics.VERIFY).timer().count());
+        Assertions.assertEquals(1, meterRegistry.get(MicrometerJwtMetrics.STAGE_METRIC)
+                .tag("stage", JwtMetrics.MAP).timer().count());
+        Assertions.assertEquals(1, meterRegistry.get(MicrometerJwtMetrics.TOKEN_CACHE_METRIC)
+                .tag("result", "hit").functionCounter().count());
+        Assertions.assertEquals(1, meterRegistry.get(MicrometerJwtMetrics.TOKEN_CACHE_METRIC)
+                .tag("result", "miss").functionCounter().count());
+        Assertions.assertEquals(1, meterRegistry.get(MicrometerJwtMetrics.REJECTED_METRIC)
+                .tag("reason", JwtMetrics.PRE_VALIDATION).counter().count());
+    }
+
+    @Test
+    @DisplayName("Given reactive user lookups time them and compute user cache hit ratio")
+    void givenReactiveUserLookups_retrieveById_recordUserLookup() {
+        UUID id = UUID.randomUUID();
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("jwtMetrics", jwtMetrics));
+        UserJwtService userJwtService = new UserJwtService(userRepository,
+                beanFactory.getBeanProvider(JwtMetrics.class), new JwtProperties());
+        ReactiveUserJwtService reactiveUserJwtService = new ReactiveUserJwtService(userJwtService,
+                Schedulers.immediate());
+
+        Mockito.when(userRepository.findById(id))
+                .thenReturn(Optional.of(EUser.builder().id(id).build()));
+
+        Assertions.assertEquals(id, reactiveUserJwtService.retrieveById(id).block().getId());
+        Assertions.assertEquals(id, reactiveUserJwtService.retrieveById(id).block().getId());
+
+        Assertions.assertEquals(2, meterRegistry.get(MicrometerJwtMetrics.STAGE_METRIC)
+                .tag("stage", JwtMetrics.USER_LOOKUP).timer().count());
+        Assertions.assertEquals(1, meterRegistry.get(MicrometerJwtMetrics.USER_LOADS_METRIC).counter().count());
+        Assertions.assertEquals(0.5, meterRegistry.get(MicrometerJwtMetrics.USER_CACHE_HIT_RATIO_METRIC)
+                .gauge().value(), 0.0001);
+    }
+
+    private JwtProperties buildJwtProperties() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret("cXVlc3RhIMOoIGxhIGZha2Ugc2VjcmV0IHBlciBnZW5lcmFyZSBpIHRva2" +
+                "VuIG5laSB0ZXN0IGRpIG1hZ2lhdnZlbnR1cmUsIGZhdGUgY29tZSB2b2xldGU=");
+        jwtProperties.setHeader("mg-a-token");
+        jwtProperties.setValidity(30L);
+        return jwtProperties;
+    }
+}
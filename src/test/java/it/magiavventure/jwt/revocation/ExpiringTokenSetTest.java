@@ -0,0 +1,44 @@
+package it.magiavventure.jwt.revocation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+@DisplayName("Expiring token set tests")
+class ExpiringTokenSetTest {
+
+    private final ExpiringTokenSet expiringTokenSet = new ExpiringTokenSet("test-expiry", 2, 1000L);
+
+    @AfterEach
+    void tearDown() {
+        expiringTokenSet.close();
+    }
+
+    @Test
+    @DisplayName("Given token ids add each of them only once until their expiration")
+    void givenTokenIds_add_onlyOnceUntilExpiration() {
+        long now = System.currentTimeMillis();
+
+        Assertions.assertTrue(expiringTokenSet.add("first", new Date(now + 10_000)));
+        Assertions.assertFalse(expiringTokenSet.add("first", new Date(now + 10_000)));
+        Assertions.assertTrue(expiringTokenSet.contains("first"));
+        expiringTokenSet.expire(now + 11_000);
+        Assertions.assertFalse(expiringTokenSet.contains("first"));
+        Assertions.assertEquals(0, expiringTokenSet.size());
+    }
+
+    @Test
+    @DisplayName("Given full set or expired token refuse the token id")
+    void givenFullSetOrExpiredToken_add_refused() {
+        long now = System.currentTimeMillis();
+
+        Assertions.assertFalse(expiringTokenSet.add("expired", new Date(now - 1000)));
+        Assertions.assertTrue(expiringTokenSet.add("first", new Date(now + 10_000)));
+        Assertions.assertTrue(expiringTokenSet.add("second", new Date(now + 10_000)));
+        Assertions.assertFalse(expiringTokenSet.add("third", new Date(now + 10_000)));
+        Assertions.assertEquals(2, expiringTokenSet.size());
+    }
+}
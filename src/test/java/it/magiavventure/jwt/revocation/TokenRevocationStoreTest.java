@@ -0,0 +1,99 @@
+package it.magiavventure.jwt.revocation;
+
+import it.magiavventure.jwt.config.JwtProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+@DisplayName("Token revocation store tests")
+class TokenRevocationStoreTest {
+
+    private TokenRevocationStore tokenRevocationStore;
+
+    @AfterEach
+    void tearDown() {
+        tokenRevocationStore.destroy();
+    }
+
+    @Test
+    @DisplayName("Given revoked token id it is revoked until its expiration")
+    void givenRevokedToken_isRevoked_untilExpiration() {
+        tokenRevocationStore = new TokenRevocationStore(buildJwtProperties(false));
+        String tokenId = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+
+        tokenRevocationStore.revoke(tokenId, new Date(now + 10_000));
+
+        Assertions.assertTrue(tokenRevocationStore.isRevoked(tokenId));
+        Assertions.assertFalse(tokenRevocationStore.isRevoked(UUID.randomUUID().toString()));
+        tokenRevocationStore.expire(now + 5_000);
+        Assertions.assertTrue(tokenRevocationStore.isRevoked(tokenId));
+        tokenRevocationStore.expire(now + 11_000);
+        Assertions.assertFalse(tokenRevocationStore.isRevoked(tokenId));
+        Assertions.assertEquals(0, tokenRevocationStore.size());
+    }
+
+    @Test
+    @DisplayName("Given expired token revoke is ignored")
+    void givenExpiredToken_revoke_ignored() {
+        tokenRevocationStore = new TokenRevocationStore(buildJwtProperties(true));
+
+        tokenRevocationStore.revoke("expired", new Date(System.currentTimeMillis() - 1000));
+
+        Assertions.assertFalse(tokenRevocationStore.isRevoked("expired"));
+        Assertions.assertEquals(0, tokenRevocationStore.size());
+    }
+
+    @Test
+    @DisplayName("Given revoked tokens with bloom filter drop them at their expiration")
+    void givenRevokedTokensWithBloomFilter_expire_dropExpired() {
+        tokenRevocationStore = new TokenRevocationStore(buildJwtProperties(true));
+        long now = System.currentTimeMillis();
+        List<String> tokenIds = new ArrayList<>();
+        IntStream.range(0, 100).forEach(i -> {
+            String tokenId = UUID.randomUUID().toString();
+            tokenIds.add(tokenId);
+            tokenRevocationStore.revoke(tokenId, new Date(now + (i + 1) * 60_000L));
+        });
+
+        tokenRevocationStore.expire(now + 50 * 60_000L + 30_000L);
+
+        Assertions.assertEquals(50, tokenRevocationStore.size());
+        IntStream.range(0, 100).forEach(i -> Assertions.assertEquals(i >= 50,
+                tokenRevocationStore.isRevoked(tokenIds.get(i))));
+        tokenRevocationStore.expire(now + 101 * 60_000L);
+        Assertions.assertEquals(0, tokenRevocationStore.size());
+    }
+
+    @Test
+    @DisplayName("Given entries beyond the wheel range they expire at their deadline")
+    void givenEntriesBeyondRange_advance_expireAtDeadline() {
+        TimingWheel<String> timingWheel = new TimingWheel<>(0L, 1L);
+        long range = 1L << 24;
+        List<String> expired = new ArrayList<>();
+        timingWheel.schedule("far", range * 2 + 5);
+        timingWheel.schedule("near", 70);
+
+        timingWheel.advance(69, expired::add);
+        Assertions.assertTrue(expired.isEmpty());
+        timingWheel.advance(70, expired::add);
+        Assertions.assertEquals(List.of("near"), expired);
+        timingWheel.advance(range * 2 + 4, expired::add);
+        Assertions.assertEquals(1, timingWheel.size());
+        timingWheel.advance(range * 2 + 5, expired::add);
+        Assertions.assertEquals(List.of("near", "far"), expired);
+    }
+
+    private JwtProperties buildJwtProperties(boolean bloomFilter) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getRevocation().setBloomFilter(bloomFilter);
+        return jwtProperties;
+    }
+}
@@ -0,0 +1,43 @@
+package it.magiavventure.jwt.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Expiring cache tests")
+class ExpiringCacheTest {
+
+    @Test
+    @DisplayName("Given full cache evict the entry expiring first")
+    void givenFullCache_put_evictFirstExpiring() {
+        ExpiringCache<String, String> expiringCache = new ExpiringCache<>(3);
+        long now = System.currentTimeMillis();
+        expiringCache.put("late", "late", now + 30_000, now);
+        expiringCache.put("early", "early", now + 10_000, now);
+        expiringCache.put("middle", "middle", now + 20_000, now);
+
+        expiringCache.put("new", "new", now + 40_000, now);
+
+        Assertions.assertEquals(3, expiringCache.size());
+        Assertions.assertNull(expiringCache.get("early", now));
+        Assertions.assertEquals("late", expiringCache.get("late", now));
+        Assertions.assertEquals("new", expiringCache.get("new", now));
+    }
+
+    @Test
+    @DisplayName("Given expired entries drop them on read and while writing")
+    void givenExpiredEntries_put_sweepExpired() {
+        ExpiringCache<Integer, Integer> expiringCache = new ExpiringCache<>(5000);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            expiringCache.put(i, i, now + 1000, now);
+        }
+
+        Assertions.assertNull(expiringCache.get(0, now + 2000));
+        for (int i = 100; i < 1100; i++) {
+            expiringCache.put(i, i, now + 10_000, now + 2000);
+        }
+
+        Assertions.assertEquals(1000, expiringCache.size());
+    }
+}
@@ -0,0 +1,142 @@
+package it.magiavventure.jwt.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.config.JwtProperties;
+import it.magiavventure.jwt.key.KeyRing;
+import it.magiavventure.mongo.model.Category;
+import it.magiavventure.mongo.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+@DisplayName("Fast token verifier tests")
+class FastTokenVerifierTest {
+
+    private static final String SECRET = "cXVlc3RhIMOoIGxhIGZha2Ugc2VjcmV0IHBlciBnZW5lcmFyZSBpIHRva2" +
+            "VuIG5laSB0ZXN0IGRpIG1hZ2lhdnZlbnR1cmUsIGZhdGUgY29tZSB2b2xldGU=";
+
+    @Test
+    @DisplayName("Verify token bind the same user of the jjwt parser")
+    void givenValidToken_verify_bindUser() {
+        JwtProperties jwtProperties = buildJwtProperties(30L);
+        JwtService jwtService = new JwtService(jwtProperties, null);
+        User user = buildUser();
+
+        VerifiedToken verifiedToken = buildVerifier(jwtProperties, new ClaimProfile(null))
+                .verify(jwtService.buildJwt(user));
+
+        Assertions.assertNotNull(verifiedToken);
+        Assertions.assertEquals(user.getId(), verifiedToken.user().getId());
+        Assertions.assertEquals(user.getName(), verifiedToken.user().getName());
+        Assertions.assertIterableEquals(user.getAuthorities(), verifiedToken.user().getAuthorities());
+        Assertions.assertEquals(user.getPreferredCategories().get(0).getId(),
+                verifiedToken.user().getPreferredCategories().get(0).getId());
+        Assertions.assertNotNull(verifiedToken.expiration());
+        Assertions.assertEquals(0L, verifiedToken.securityVersion());
+    }
+
+    @Test
+    @DisplayName("Verify token built with compact claim profile")
+    void givenCompactToken_verify_bindUser() {
+        JwtProperties jwtProperties = buildJwtProperties(30L);
+        jwtProperties.getClaimProfile().setEnabled(true);
+        JwtService jwtService = new JwtService(jwtProperties, null);
+        User user = buildUser();
+
+        VerifiedToken verifiedToken = buildVerifier(jwtProperties, new ClaimProfile(jwtProperties.getClaimProfile()))
+                .verify(jwtService.buildJwt(user));
+
+        Assertions.assertNotNull(verifiedToken);
+        Assertions.assertEquals(user.getId(), verifiedToken.user().getId());
+        Assertions.assertEquals(user.getName(), verifiedToken.user().getName());
+        Assertions.assertIterableEquals(user.getAuthorities(), verifiedToken.user().getAuthorities());
+    }
+
+    @Test
+    @DisplayName("Verify token with wrong signature throw exception")
+    void givenTamperedToken_verify_throwException() {
+        JwtProperties jwtProperties = buildJwtProperties(30L);
+        String token = new JwtService(jwtProperties, null).buildJwt(buildUser());
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A')
+                + token.charAt(token.length() - 1);
+        FastTokenVerifier fastTokenVerifier = buildVerifier(jwtProperties, new ClaimProfile(null));
+
+        MagiavventureException exception = Assertions.assertThrows(MagiavventureException.class,
+                () -> fastTokenVerifier.verify(tampered));
+
+        Assertions.assertEquals("not-authenticated", exception.getError().getKey());
+    }
+
+    @Test
+    @DisplayName("Verify expired token throw exception")
+    void givenExpiredToken_verify_throwException() {
+        JwtProperties jwtProperties = buildJwtProperties(-3L);
+        String token = new JwtService(jwtProperties, null).buildJwt(buildUser());
+        FastTokenVerifier fastTokenVerifier = buildVerifier(jwtProperties, new ClaimProfile(null));
+
+        MagiavventureException exception = Assertions.assertThrows(MagiavventureException.class,
+                () -> fastTokenVerifier.verify(token));
+
+        Assertions.assertEquals("not-authenticated", exception.getError().getKey());
+    }
+
+    @Test
+    @DisplayName("Verify token with unknown header or not before claim fall back to jjwt")
+    void givenUnusualToken_verify_fallBack() {
+        JwtProperties jwtProperties = buildJwtProperties(30L);
+        KeyRing keyRing = new KeyRing(jwtProperties);
+        String customHeaderToken = Jwts.builder()
+                .header().add("cty", "custom").and()
+                .subject(UUID.randomUUID().toString())
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(keyRing.getSigningKey().key())
+                .compact();
+        String notBeforeToken = Jwts.builder()
+                .subject(UUID.randomUUID().toString())
+                .notBefore(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(keyRing.getSigningKey().key())
+                .compact();
+        FastTokenVerifier fastTokenVerifier = buildVerifier(jwtProperties, new ClaimProfile(null));
+
+        Assertions.assertNull(fastTokenVerifier.verify(customHeaderToken));
+        Assertions.assertNull(fastTokenVerifier.verify(notBeforeToken));
+        Assertions.assertNull(fastTokenVerifier.verify("not.a-token"));
+    }
+
+    private FastTokenVerifier buildVerifier(JwtProperties jwtProperties, ClaimProfile claimProfile) {
+        return new FastTokenVerifier(new KeyRing(jwtProperties), claimProfile, new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+    }
+
+    private JwtProperties buildJwtProperties(long validity) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setValidity(validity);
+        jwtProperties.setHeader("mg-a-token");
+        return jwtProperties;
+    }
+
+    private User buildUser() {
+        return User
+                .builder()
+                .id(UUID.randomUUID())
+                .name("name")
+                .preferredCategories(List.of(Category
+                        .builder()
+                        .id(UUID.randomUUID())
+                        .name("name")
+                        .background("background")
+                        .build()))
+                .authorities(List.of("user", "admin"))
+                .build();
+    }
+}
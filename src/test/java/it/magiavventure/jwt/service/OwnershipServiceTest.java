@@ -1,17 +1,22 @@
 package it.magiavventure.jwt.service;
 
 import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.audit.AuditLog;
 import it.magiavventure.jwt.config.AppContext;
+import it.magiavventure.jwt.metrics.JwtMetrics;
 import it.magiavventure.mongo.entity.EUser;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +41,26 @@ class OwnershipServiceTest {
         Assertions.assertEquals("ownership", exception.getError().getKey());
     }
 
+    @Test
+    @DisplayName("Given ownership denied record the outcome and audit it")
+    void givenOwnershipDenied_validateOwnership_recordOutcome() {
+        JwtMetrics jwtMetrics = Mockito.mock(JwtMetrics.class);
+        AuditLog auditLog = Mockito.mock(AuditLog.class);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("jwtMetrics", jwtMetrics,
+                "auditLog", auditLog));
+        OwnershipService recordingOwnershipService = new OwnershipService(
+                beanFactory.getBeanProvider(JwtMetrics.class), beanFactory.getBeanProvider(AuditLog.class));
+        EUser eUser = EUser.builder().id(UUID.randomUUID())
+                .authorities(List.of(OwnershipService.USER_AUTHORITY)).build();
+        appContext.setUser(eUser);
+
+        Assertions.assertThrows(MagiavventureException.class,
+                () -> recordingOwnershipService.validateOwnership(UUID.randomUUID()));
+
+        Mockito.verify(jwtMetrics).outcome("ownership");
+        Mockito.verify(auditLog).publish(eUser.getId(), "ownership", null, null);
+    }
+
     @Test
     @DisplayName("Given id value and user with same id not throw ownership exception")
     void givenIdValueAndUserWithSameId_notThrowOwnershipException() {
@@ -0,0 +1,60 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.common.error.MagiavventureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@DisplayName("Security version registry tests")
+class SecurityVersionRegistryTest {
+
+    private final SecurityVersionRegistry securityVersionRegistry = new SecurityVersionRegistry();
+
+    @Test
+    @DisplayName("Given unknown user validate any version")
+    void givenUnknownUser_validate_ok() {
+        Assertions.assertDoesNotThrow(() -> securityVersionRegistry.validate(UUID.randomUUID(), 0L));
+        Assertions.assertEquals(0, securityVersionRegistry.size());
+    }
+
+    @Test
+    @DisplayName("Given revoked user reject older versions")
+    void givenRevokedUser_validateOlderVersion_throwException() {
+        UUID id = UUID.randomUUID();
+
+        long version = securityVersionRegistry.revoke(id);
+
+        Assertions.assertEquals(1L, version);
+        MagiavventureException exception = Assertions.assertThrows(MagiavventureException.class,
+                () -> securityVersionRegistry.validate(id, 0L));
+        Assertions.assertEquals("not-authenticated", exception.getError().getKey());
+        Assertions.assertDoesNotThrow(() -> securityVersionRegistry.validate(id, 1L));
+    }
+
+    @Test
+    @DisplayName("Given banned user reject until the ban expires")
+    void givenBannedUser_validate_throwUntilUnban() {
+        UUID id = UUID.randomUUID();
+
+        securityVersionRegistry.ban(id, Instant.now().plusSeconds(60));
+
+        Assertions.assertThrows(MagiavventureException.class, () -> securityVersionRegistry.validate(id, 0L));
+        securityVersionRegistry.unban(id);
+        Assertions.assertDoesNotThrow(() -> securityVersionRegistry.validate(id, 0L));
+        Assertions.assertEquals(0, securityVersionRegistry.size());
+    }
+
+    @Test
+    @DisplayName("Given expired ban validate and drop the entry")
+    void givenExpiredBan_validate_dropEntry() {
+        UUID id = UUID.randomUUID();
+
+        securityVersionRegistry.ban(id, Instant.now().minusSeconds(1));
+
+        Assertions.assertDoesNotThrow(() -> securityVersionRegistry.validate(id, 0L));
+        Assertions.assertEquals(0, securityVersionRegistry.size());
+    }
+}
@@ -0,0 +1,50 @@
+package it.magiavventure.jwt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.magiavventure.jwt.config.JwtProperties.PreValidationProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@DisplayName("Token pre validator tests")
+class TokenPreValidatorTest {
+
+    private static final String PAYLOAD = "eyJzdWIiOiIxMjM0NTY3ODkwIn0";
+    private static final String SIGNATURE = "c2lnbmF0dXJlc2lnbmF0dXJl";
+
+    private final TokenPreValidator tokenPreValidator = new TokenPreValidator(new PreValidationProperties(),
+            new ObjectMapper());
+
+    @Test
+    @DisplayName("Given rejected headers the cache keeps room for accepted ones")
+    void givenRejectedHeaders_isValid_cacheOnlyAccepted() {
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertFalse(tokenPreValidator.isValid(token("{\"alg\":\"none\",\"n\":" + i + "}")));
+        }
+        Assertions.assertEquals(0, tokenPreValidator.cachedHeaders());
+
+        Assertions.assertTrue(tokenPreValidator.isValid(token("{\"alg\":\"HS256\"}")));
+        Assertions.assertTrue(tokenPreValidator.isValid(token("{\"alg\":\"HS256\"}")));
+        Assertions.assertEquals(1, tokenPreValidator.cachedHeaders());
+    }
+
+    @Test
+    @DisplayName("Given more accepted headers than the bound the cache stays bounded and accepts new ones")
+    void givenManyAcceptedHeaders_isValid_boundCache() {
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertTrue(tokenPreValidator.isValid(token("{\"alg\":\"HS256\",\"n\":" + i + "}")));
+            Assertions.assertTrue(tokenPreValidator.cachedHeaders() <= 256);
+        }
+
+        Assertions.assertTrue(tokenPreValidator.isValid(token("{\"alg\":\"HS512\"}")));
+        Assertions.assertTrue(tokenPreValidator.cachedHeaders() >= 1);
+    }
+
+    private static String token(String header) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(header.getBytes(StandardCharsets.UTF_8))
+                + "." + PAYLOAD + "." + SIGNATURE;
+    }
+}
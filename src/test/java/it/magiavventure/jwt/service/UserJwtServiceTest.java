@@ -1,6 +1,7 @@
 package it.magiavventure.jwt.service;
 
 import it.magiavventure.common.error.MagiavventureException;
+import it.magiavventure.jwt.config.JwtProperties;
 import it.magiavventure.mongo.entity.EUser;
 import it.magiavventure.mongo.repository.UserRepository;
 import org.junit.jupiter.api.Assertions;
@@ -11,12 +12,23 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("User jwt service tests")
@@ -84,4 +96,177 @@ class UserJwtServiceTest {
         Assertions.assertDoesNotThrow(() -> userJwtService.validateUser(eUser));
     }
 
+    @Test
+    @DisplayName("Given cached user retrieve it again after the eviction only")
+    void givenCachedUser_retrieveById_reloadAfterEviction() {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userRepository.findById(id))
+                .thenReturn(Optional.of(EUser.builder().id(id).build()));
+
+        userJwtService.retrieveById(id);
+        userJwtService.retrieveById(id);
+        Mockito.verify(userRepository, Mockito.times(1)).findById(id);
+
+        userJwtService.evict(id);
+        userJwtService.retrieveById(id);
+        Mockito.verify(userRepository, Mockito.times(2)).findById(id);
+
+        userJwtService.evictAll();
+        userJwtService.retrieveById(id);
+        Mockito.verify(userRepository, Mockito.times(3)).findById(id);
+    }
+
+    @Test
+    @DisplayName("Given banned user keep it cached until the ban end")
+    void givenBannedUser_retrieveById_cachedUntilBanEnd() throws InterruptedException {
+        UUID id = UUID.randomUUID();
+        Mockito.when(userRepository.findById(id))
+                .thenReturn(Optional.of(EUser.builder().id(id)
+                                .banExpiration(LocalDateTime.now().plusNanos(300_000_000L)).build()),
+                        Optional.of(EUser.builder().id(id).build()));
+
+        Assertions.assertThrows(MagiavventureException.class, () -> userJwtService.retrieveById(id));
+        Assertions.assertThrows(MagiavventureException.class, () -> userJwtService.retrieveById(id));
+        Mockito.verify(userRepository, Mockito.times(1)).findById(id);
+
+        Thread.sleep(400);
+        EUser eUser = userJwtService.retrieveById(id);
+
+        Mockito.verify(userRepository, Mockito.times(2)).findById(id);
+        Assertions.assertNull(eUser.getBanExpiration());
+    }
+
+    @Test
+    @DisplayName("Given max ttl reload user once expired")
+    void givenMaxTtl_retrieveById_reloadOnceExpired() throws InterruptedException {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getUserCache().setMaxTtl(Duration.ofMillis(100));
+        UserJwtService ttlUserJwtService = new UserJwtService(userRepository, null, jwtProperties);
+        UUID id = UUID.randomUUID();
+        Mockito.when(userRepository.findById(id))
+                .thenReturn(Optional.of(EUser.builder().id(id).build()));
+
+        ttlUserJwtService.retrieveById(id);
+        ttlUserJwtService.retrieveById(id);
+        Thread.sleep(200);
+        ttlUserJwtService.retrieveById(id);
+
+        Mockito.verify(userRepository, Mockito.times(2)).findById(id);
+    }
+
+    @Test
+    @DisplayName("Given shared user cache honour the evictions done on it")
+    void givenSharedUserCache_retrieveById_honourSharedEvictions() {
+        CacheManager cacheManager = new ConcurrentMapCacheManager("user");
+        ObjectProvider<CacheManager> cacheManagerProvider = Mockito.mock();
+        Mockito.when(cacheManagerProvider.getIfAvailable()).thenReturn(cacheManager);
+        UserJwtService sharedUserJwtService = new UserJwtService(userRepository, null, new JwtProperties(),
+                cacheManagerProvider);
+        UUID id = UUID.randomUUID();
+        Mockito.when(userRepository.findById(id))
+                .thenReturn(Optional.of(EUser.builder().id(id).build()));
+
+        sharedUserJwtService.retrieveById(id);
+        sharedUserJwtService.retrieveById(id);
+        Mockito.verify(userRepository, Mockito.times(1)).findById(id);
+        Assertions.assertNotNull(cacheManager.getCache("user").get(id));
+
+        cacheManager.getCache("user").evict(id);
+        sharedUserJwtService.retrieveById(id);
+        Mockito.verify(userRepository, Mockito.times(2)).findById(id);
+
+        sharedUserJwtService.evict(id);
+        Assertions.assertNull(cacheManager.getCache("user").get(id));
+    }
+
+    @Test
+    @DisplayName("Given concurrent lookups of the same id load user once")
+    void givenConcurrentLookups_retrieveById_loadOnce() throws Exception {
+        UUID id = UUID.randomUUID();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(userRepository.findById(id)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(EUser.builder().id(id).build());
+        });
+
+        List<EUser> users = lookupConcurrently(id, loading, release);
+
+        Mockito.verify(userRepository, Mockito.times(1)).findById(id);
+        users.forEach(eUser -> Assertions.assertEquals(id, eUser.getId()));
+    }
+
+    @Test
+    @DisplayName("Given concurrent lookups of a missing id share the failure")
+    void givenConcurrentLookupsOfMissingUser_retrieveById_shareFailure() throws Exception {
+        UUID id = UUID.randomUUID();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(userRepository.findById(id)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.empty();
+        });
+
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                () -> lookupConcurrently(id, loading, release));
+
+        Mockito.verify(userRepository, Mockito.times(1)).findById(id);
+        Assertions.assertInstanceOf(MagiavventureException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Given concurrent lookups of different ids load users in one batch")
+    void givenConcurrentLookupsOfDifferentIds_retrieveById_loadInOneBatch() throws Exception {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getUserBatch().setEnabled(true);
+        jwtProperties.getUserBatch().setMaxSize(4);
+        jwtProperties.getUserBatch().setWindow(Duration.ofSeconds(10));
+        UserJwtService batchUserJwtService = new UserJwtService(userRepository, null, jwtProperties);
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        Mockito.when(userRepository.findAllById(Mockito.anyIterable()))
+                .thenReturn(ids.subList(0, 3).stream().map(id -> EUser.builder().id(id).build()).toList());
+        ExecutorService executorService = Executors.newFixedThreadPool(ids.size());
+        try {
+            List<Future<EUser>> lookups = ids.stream()
+                    .map(id -> executorService.submit(() -> batchUserJwtService.retrieveById(id)))
+                    .toList();
+
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertEquals(ids.get(i), lookups.get(i).get(5, TimeUnit.SECONDS).getId());
+            }
+            ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                    () -> lookups.get(3).get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(MagiavventureException.class, exception.getCause());
+            Mockito.verify(userRepository, Mockito.times(1)).findAllById(Mockito.anyIterable());
+            Mockito.verify(userRepository, Mockito.never()).findById(Mockito.any());
+        } finally {
+            executorService.shutdownNow();
+            batchUserJwtService.destroy();
+        }
+    }
+
+    private List<EUser> lookupConcurrently(UUID id, CountDownLatch loading, CountDownLatch release)
+            throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<EUser>> lookups = new ArrayList<>();
+            lookups.add(executorService.submit(() -> userJwtService.retrieveById(id)));
+            Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                lookups.add(executorService.submit(() -> userJwtService.retrieveById(id)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            List<EUser> users = new ArrayList<>();
+            for (Future<EUser> lookup : lookups) {
+                users.add(lookup.get(5, TimeUnit.SECONDS));
+            }
+            return users;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
 }
@@ -0,0 +1,81 @@
+package it.magiavventure.jwt.service;
+
+import it.magiavventure.jwt.config.JwtProperties.TokenCacheProperties;
+import it.magiavventure.mongo.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+@DisplayName("Verified token cache tests")
+class VerifiedTokenCacheTest {
+
+    @Test
+    @DisplayName("Given cached token return user and count hit")
+    void givenCachedToken_get_returnUser() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(buildProperties(10, Duration.ofMinutes(5)));
+        User user = User.builder().id(UUID.randomUUID()).build();
+
+        Assertions.assertTrue(verifiedTokenCache.get("token").isEmpty());
+        verifiedTokenCache.put("token", verifiedToken(user, new Date(System.currentTimeMillis() + 60000)));
+
+        Assertions.assertEquals(user, verifiedTokenCache.get("token").orElseThrow().user());
+        Assertions.assertEquals(1, verifiedTokenCache.getHits());
+        Assertions.assertEquals(1, verifiedTokenCache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Given expired token not cache it")
+    void givenExpiredToken_put_notCached() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(buildProperties(10, Duration.ofMinutes(5)));
+        User user = User.builder().id(UUID.randomUUID()).build();
+
+        verifiedTokenCache.put("token", verifiedToken(user, new Date(System.currentTimeMillis() - 1000)));
+
+        Assertions.assertEquals(0, verifiedTokenCache.size());
+        Assertions.assertTrue(verifiedTokenCache.get("token").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Given full cache keep size bounded")
+    void givenFullCache_put_sizeBounded() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(buildProperties(2, Duration.ofMinutes(5)));
+        Date expiration = new Date(System.currentTimeMillis() + 60000);
+
+        for (int i = 0; i < 10; i++) {
+            verifiedTokenCache.put("token" + i, verifiedToken(User.builder().id(UUID.randomUUID()).build(),
+                    expiration));
+        }
+
+        Assertions.assertTrue(verifiedTokenCache.size() <= 2);
+        Assertions.assertTrue(verifiedTokenCache.get("token9").isPresent());
+    }
+
+    @Test
+    @DisplayName("Given disabled cache never return user")
+    void givenDisabledCache_get_returnEmpty() {
+        TokenCacheProperties properties = buildProperties(10, Duration.ofMinutes(5));
+        properties.setEnabled(false);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(properties);
+
+        verifiedTokenCache.put("token", verifiedToken(User.builder().id(UUID.randomUUID()).build(),
+                new Date(System.currentTimeMillis() + 60000)));
+
+        Assertions.assertTrue(verifiedTokenCache.get("token").isEmpty());
+        Assertions.assertEquals(0, verifiedTokenCache.getMisses());
+    }
+
+    private VerifiedToken verifiedToken(User user, Date expiration) {
+        return new VerifiedToken(user, expiration, 0L, null);
+    }
+
+    private TokenCacheProperties buildProperties(int maxSize, Duration ttl) {
+        TokenCacheProperties properties = new TokenCacheProperties();
+        properties.setMaxSize(maxSize);
+        properties.setTtl(ttl);
+        return properties;
+    }
+}